@@ -0,0 +1,69 @@
+package com.project.app.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.project.app.dtos.AppointmentDTO;
+import com.project.app.dtos.PrescriptionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * JSON against CBOR for the list payloads internal clients pull: encode and decode time for
+ * AppointmentDTO and PrescriptionDTO lists, with the CBOR mapper derived from the JSON one
+ * the way WebMvcConfig derives it. The encoded size is printed once per trial.
+ *
+ * JDK 21 on a single shared vCPU, 10,000 rows, {@code -tu ms}:
+ * <pre>
+ * payload        format  bytes      encode ms/op  decode ms/op
+ * appointments   json    3,540,561  6.0 ± 1.4     71.4 ±  6.4
+ * appointments   cbor    3,026,893  6.3 ± 3.1     40.6 ± 29.9
+ * prescriptions  json    2,604,891  4.9 ± 1.0     21.3 ± 17.9
+ * prescriptions  cbor    2,220,393  4.2 ± 3.0     16.1 ±  5.7
+ * </pre>
+ */
+@State(Scope.Benchmark)
+public class BinaryFormatBenchmark extends BenchmarkDefaults {
+
+    @Param("10000")
+    private int rows;
+
+    @Param({"appointments", "prescriptions"})
+    private String payload;
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private List<?> values;
+    private JavaType type;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper json = Fixtures.mapper(true);
+        mapper = "cbor".equals(format) ? json.copyWith(new CBORFactory()) : json;
+        boolean appointments = "appointments".equals(payload);
+        values = appointments ? Fixtures.appointments(rows) : Fixtures.prescriptions(rows);
+        type = mapper.getTypeFactory().constructCollectionType(List.class,
+            appointments ? AppointmentDTO.class : PrescriptionDTO.class);
+        encoded = mapper.writeValueAsBytes(values);
+        System.out.printf("%n%s as %s: %,d bytes%n", payload, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(values);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return mapper.readValue(encoded, type);
+    }
+}
@@ -0,0 +1,63 @@
+package com.project.app.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.project.app.dtos.BookingRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of turning a booking body into an appointment time: the old path, which bound a
+ * {@code Map<String, Object>} and parsed ids, date and time from strings in the service,
+ * against binding straight into {@link BookingRequest}. Add {@code -prof gc} for bytes
+ * allocated per request.
+ *
+ * JDK 21 on a single shared vCPU, {@code -prof gc}:
+ * <pre>
+ * variant       ns/op        bytes/op
+ * mapAndParse   2,323 ± 95   2,376
+ * record        2,342 ± 45   2,096
+ * </pre>
+ * The record saves about 280 bytes per request; parsing time is the same within noise.
+ */
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BookingBindingBenchmark extends BenchmarkDefaults {
+
+    private ObjectReader mapReader;
+    private ObjectReader recordReader;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Fixtures.mapper(true);
+        mapReader = mapper.readerFor(Map.class);
+        recordReader = mapper.readerFor(BookingRequest.class);
+    }
+
+    @Benchmark
+    public long mapAndParse() throws Exception {
+        Map<?, ?> data = mapReader.readValue(Fixtures.BOOKING_BODY);
+        Long doctorId = Long.parseLong(data.get("doctorId").toString());
+        Long patientId = Long.parseLong(data.get("patientId").toString());
+        String reason = (String) data.get("reason");
+        LocalDateTime at = LocalDateTime.of(
+            LocalDate.parse((String) data.get("date")), LocalTime.parse((String) data.get("time")));
+        return doctorId + patientId + reason.length() + at.getMinute();
+    }
+
+    @Benchmark
+    public long record() throws Exception {
+        BookingRequest booking = recordReader.readValue(Fixtures.BOOKING_BODY);
+        LocalDateTime at = LocalDateTime.of(booking.date(), booking.time());
+        return booking.doctorId() + booking.patientId() + booking.reason().length() + at.getMinute();
+    }
+}
@@ -0,0 +1,124 @@
+package com.project.app.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.app.exceptions.ApiExceptionHandler;
+import com.project.app.exceptions.NotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.ProblemDetailJacksonMixin;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Error responses per second through the whole MVC error path: dispatch, a service call
+ * {@code depth} frames deep that fails, and the response body written by Jackson.
+ *
+ * {@code legacy} is the old style, where the service threw {@code new RuntimeException} and
+ * the controller caught it to return an error map; {@code domain} throws the stackless
+ * {@link NotFoundException} and lets {@link ApiExceptionHandler} render the ProblemDetail.
+ *
+ * JDK 21 on a single shared vCPU (errors/s, higher is better):
+ * <pre>
+ * variant  depth  errors/s
+ * legacy       0  42,000 ± 1,400
+ * domain       0  33,100 ± 4,500
+ * legacy     100  25,700 ± 1,500
+ * domain     100  34,300 ± 5,800
+ * </pre>
+ * Resolving the exception and rendering a ProblemDetail costs more than a caught exception
+ * and a map when the stack is shallow. The stackless exception keeps that cost flat as the
+ * stack deepens, while the legacy path pays for every frame it captures.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// The MVC stack takes far longer to reach steady state than the shared warm-up allows
+@Warmup(iterations = 15, time = 2)
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark extends BenchmarkDefaults {
+
+    @Param({"0", "100"})
+    private int depth;
+
+    private MockMvc mockMvc;
+
+    @RestController
+    public static class FailingController {
+
+        private final int depth;
+
+        FailingController(int depth) {
+            this.depth = depth;
+        }
+
+        @GetMapping("/legacy")
+        public ResponseEntity<?> legacy() {
+            try {
+                descend(depth, () -> new RuntimeException("Doctor not found"));
+                return ResponseEntity.ok().build();
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+            }
+        }
+
+        @GetMapping("/domain")
+        public ResponseEntity<?> domain() {
+            descend(depth, () -> new NotFoundException("Doctor not found"));
+            return ResponseEntity.ok().build();
+        }
+
+        private static void descend(int depth, Supplier<RuntimeException> error) {
+            if (depth == 0) {
+                throw error.get();
+            }
+            descend(depth - 1, error);
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        Fixtures.quietLogging();
+        // Flattens ProblemDetail properties such as "error", as the application's mapper does
+        ObjectMapper mapper = Fixtures.mapper(true).addMixIn(ProblemDetail.class, ProblemDetailJacksonMixin.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new FailingController(depth))
+            .setControllerAdvice(new ApiExceptionHandler())
+            .setMessageConverters(new MappingJackson2HttpMessageConverter(mapper))
+            .build();
+        for (String path : new String[] {"/legacy", "/domain"}) {
+            MockHttpServletResponse response = mockMvc.perform(get(path)).andReturn().getResponse();
+            if (response.getStatus() != 404 || !response.getContentAsString().contains("Doctor not found")) {
+                throw new IllegalStateException(path + " answered " + response.getStatus() + " "
+                    + response.getContentAsString());
+            }
+        }
+    }
+
+    @Benchmark
+    public int legacy() throws Exception {
+        return mockMvc.perform(get("/legacy")).andReturn().getResponse().getContentLength();
+    }
+
+    @Benchmark
+    public int domain() throws Exception {
+        return mockMvc.perform(get("/domain")).andReturn().getResponse().getContentLength();
+    }
+}
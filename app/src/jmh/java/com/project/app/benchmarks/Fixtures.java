@@ -0,0 +1,98 @@
+package com.project.app.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.project.app.config.JacksonConfig;
+import com.project.app.dtos.AppointmentDTO;
+import com.project.app.dtos.PrescriptionDTO;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payloads and mappers shared by the benchmarks, so every benchmark measures the same data.
+ */
+final class Fixtures {
+
+    static final byte[] BOOKING_BODY = ("{\"doctorId\":12,\"patientId\":345,\"date\":\"2026-11-03\","
+        + "\"time\":\"09:30\",\"reason\":\"Follow-up on blood pressure\"}").getBytes(StandardCharsets.UTF_8);
+
+    static final byte[] PRESCRIPTION_BODY = ("{\"patientId\":345,\"appointmentId\":678,"
+        + "\"medication\":\"Amoxicillin 500mg\",\"dosage\":\"1 capsule three times a day\","
+        + "\"duration\":\"7 days\",\"notes\":\"Take with food\"}").getBytes(StandardCharsets.UTF_8);
+
+    private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2026, 1, 5, 8, 0);
+
+    private Fixtures() {
+    }
+
+    /**
+     * Logback defaults to DEBUG without a configuration file, and per-request framework logging
+     * would swamp anything measured through Spring MVC.
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    /**
+     * A mapper with Spring Boot's defaults. {@code tuned} adds the modules from
+     * {@link JacksonConfig} (Blackbird and the fixed-format java.time serializers), which is
+     * what the message converters use.
+     */
+    static ObjectMapper mapper(boolean tuned) {
+        ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        if (tuned) {
+            mapper.registerModule(new BlackbirdModule())
+                .registerModule(JacksonConfig.javaTimeModule());
+        }
+        return mapper;
+    }
+
+    // A doctor's schedule: 40 doctors, one patient per row, half-hour slots
+    static List<AppointmentDTO> appointments(int rows) {
+        List<AppointmentDTO> list = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            list.add(new AppointmentDTO((long) i, (long) (i % 40), "Dr. Doctor " + (i % 40),
+                (long) (1000 + i), "Patient " + i, "patient" + i + "@example.com", "555-01" + (i % 100),
+                i + " Main Street", FIRST_SLOT.plusMinutes(30L * i), "BOOKED"));
+        }
+        return list;
+    }
+
+    static List<PrescriptionDTO> prescriptions(int rows) {
+        List<PrescriptionDTO> list = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            list.add(new PrescriptionDTO(Integer.toHexString(0x6500_0000 + i), (long) (1000 + i), (long) (i % 40),
+                "Amoxicillin 500mg", "1 capsule three times a day", "7 days", "Take with food",
+                FIRST_SLOT.plusMinutes(30L * i), "Patient " + i, "Dr. Doctor " + (i % 40)));
+        }
+        return list;
+    }
+
+    // Stands in for the response stream: counts bytes and drops them
+    static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.app.benchmarks;
+
+import com.project.app.security.BoundedPasswordEncoder;
+import com.project.app.security.PasswordEncoders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password verification throughput (logins/sec) for the supported hash formats, with
+ * concurrent logins going through the same bounded hashing pool the application uses
+ * (one thread per core). Divide by the core count for logins/sec/core.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark extends BenchmarkDefaults {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    // PasswordEncoders id : bcrypt cost : argon2 memory (KiB) : argon2 iterations
+    @Param({"bcrypt:10:19456:2", "bcrypt:12:19456:2", "argon2:12:19456:2", "argon2:12:65536:3"})
+    private String format;
+
+    private BoundedPasswordEncoder encoder;
+    private String stored;
+
+    @Setup
+    public void setUp() {
+        String[] parts = format.split(":");
+        PasswordEncoder delegate = PasswordEncoders.delegating(parts[0], Integer.parseInt(parts[1]),
+            Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), 1);
+        int cores = Runtime.getRuntime().availableProcessors();
+        // Queue room for every benchmark thread, so no login is rejected
+        encoder = new BoundedPasswordEncoder(delegate, cores, 64, 60_000);
+        stored = encoder.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        encoder.close();
+    }
+
+    @Benchmark
+    public boolean login() {
+        return encoder.matches(PASSWORD, stored);
+    }
+}
@@ -0,0 +1,294 @@
+package com.project.app.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.app.controllers.PrescriptionController;
+import com.project.app.dtos.PrescriptionRequest;
+import com.project.app.models.Doctor;
+import com.project.app.models.Prescription;
+import com.project.app.repositories.AdminRepo;
+import com.project.app.repositories.DoctorRepo;
+import com.project.app.repositories.PatientRepo;
+import com.project.app.repositories.PrescriptionRepo;
+import com.project.app.repositories.RevokedTokenRepo;
+import com.project.app.security.CurrentUserArgumentResolver;
+import com.project.app.security.CustomUserDetailsService;
+import com.project.app.security.JwtAuthenticationFilter;
+import com.project.app.security.JwtTokenProvider;
+import com.project.app.security.TokenRevocationService;
+import com.project.app.security.UserDetailsImpl;
+import com.project.app.services.IdempotencyService;
+import com.project.app.services.PrescriptionService;
+import jakarta.validation.Valid;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotatedBeanDefinitionReader;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Saving a prescription through the JWT filter, MVC dispatch and the real services, with
+ * every repository replaced by a stub that counts its calls.
+ *
+ * {@code pathToken} is the old {@code POST /api/prescription/{token}} flow. The controller
+ * re-validated the token and reloaded the doctor through {@code loadUserByUsername}. That
+ * lookup lists the admins, then looks up the admin and the doctor by name.
+ * {@code bearer} is {@code POST /api/prescriptions}, where the filter authenticates
+ * from the access token's claims and the doctor id comes from {@code @CurrentUser}.
+ *
+ * {@code repositoryCalls} is reported at the same rate as the requests, so dividing it by
+ * the primary score gives the calls per request. JDK 21 on a single shared vCPU (higher is
+ * better):
+ * <pre>
+ * variant    requests/s        repositoryCalls/s   calls per request
+ * pathToken   9,140 ± 1,360    36,600 ± 5,400      4
+ * bearer     14,400 ± 2,000    14,400 ± 2,000      1
+ * </pre>
+ * Even with stubs that answer at once, the bearer flow serves about 1.6 times as many
+ * requests. Against MySQL, each of the three lookups it drops is also a round trip.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// Same MVC stack as ErrorPathBenchmark, so the same long warm-up
+@Warmup(iterations = 15, time = 2)
+@State(Scope.Benchmark)
+public class PrescriptionAuthBenchmark extends BenchmarkDefaults {
+
+    private static final Long DOCTOR_ID = 12L;
+    private static final String DOCTOR_EMAIL = "doctor12@example.com";
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private GenericWebApplicationContext context;
+    private MockMvc mockMvc;
+    private RequestBuilder pathTokenRequest;
+    private RequestBuilder bearerRequest;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RepositoryCalls {
+        public long repositoryCalls;
+    }
+
+    /**
+     * The removed path-token endpoint, as it was before prescriptions moved to bearer auth.
+     */
+    @RestController
+    public static class PathTokenController {
+
+        @Autowired
+        private JwtTokenProvider jwtTokenProvider;
+
+        @Autowired
+        private TokenRevocationService tokenRevocationService;
+
+        @Autowired
+        private CustomUserDetailsService userDetailsService;
+
+        @Autowired
+        private PrescriptionService prescriptionService;
+
+        @PostMapping("/api/prescription/{token}")
+        public ResponseEntity<?> savePrescription(@PathVariable String token,
+                                                  @Valid @RequestBody PrescriptionRequest prescription) {
+            UserDetailsImpl doctor = validateToken(token);
+            if (doctor == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or expired token. Only doctors can save prescriptions."));
+            }
+            Prescription saved = prescriptionService.savePrescription(doctor.getId(), prescription);
+            return ResponseEntity.ok(Map.of("message", "Prescription saved", "id", saved.getId()));
+        }
+
+        private UserDetailsImpl validateToken(String token) {
+            if (!jwtTokenProvider.validateToken(token)
+                    || tokenRevocationService.isRevoked(jwtTokenProvider.getClaimsFromToken(token).getId())) {
+                return null;
+            }
+            String username = jwtTokenProvider.getUsernameFromJWT(token);
+            UserDetails user = username == null ? null : userDetailsService.loadUserByUsername(username);
+            boolean doctor = user != null && user.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_DOCTOR"));
+            return doctor ? (UserDetailsImpl) user : null;
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @EnableMethodSecurity
+    public static class Wiring implements WebMvcConfigurer {
+
+        @Bean
+        public ObjectMapper objectMapper() {
+            return Fixtures.mapper(true);
+        }
+
+        @Override
+        public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+            resolvers.add(new CurrentUserArgumentResolver());
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        Fixtures.quietLogging();
+        context = new GenericWebApplicationContext(new MockServletContext());
+        // Only the startup sync reads revoked_token; the background poll would add calls at random.
+        // HS512 needs a 64-byte secret, as deployments set through APP_JWT_SECRET.
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+            "app.jwt.revocation.poll-interval-ms", "3600000",
+            "APP_JWT_SECRET", "benchmark-secret-".repeat(4))));
+        new AnnotatedBeanDefinitionReader(context).register(Wiring.class, JwtTokenProvider.class,
+            TokenRevocationService.class, CustomUserDetailsService.class, PrescriptionService.class,
+            IdempotencyService.class, PrescriptionController.class, PathTokenController.class);
+
+        Doctor doctor = new Doctor();
+        doctor.setId(DOCTOR_ID);
+        doctor.setName("Dr. Doctor 12");
+        doctor.setEmail(DOCTOR_EMAIL);
+        doctor.setPassword("{noop}secret");
+        context.registerBean(AdminRepo.class, () -> counting(AdminRepo.class, Map.of()));
+        context.registerBean(PatientRepo.class, () -> counting(PatientRepo.class, Map.of()));
+        context.registerBean(RevokedTokenRepo.class, () -> counting(RevokedTokenRepo.class, Map.of()));
+        context.registerBean(DoctorRepo.class, () -> counting(DoctorRepo.class,
+            Map.of("findByEmail", Optional.of(doctor))));
+        context.registerBean(PrescriptionRepo.class, () -> counting(PrescriptionRepo.class, Map.of()));
+        context.refresh();
+
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+            .addFilters(context.getAutowireCapableBeanFactory().createBean(JwtAuthenticationFilter.class))
+            .build();
+
+        String token = context.getBean(JwtTokenProvider.class).generateAccessToken(new UserDetailsImpl(
+            DOCTOR_EMAIL, DOCTOR_EMAIL, null, List.of(new SimpleGrantedAuthority("ROLE_DOCTOR")),
+            DOCTOR_ID, "DOCTOR"));
+        pathTokenRequest = post("/api/prescription/" + token)
+            .contentType(MediaType.APPLICATION_JSON).content(Fixtures.PRESCRIPTION_BODY);
+        bearerRequest = post("/api/prescriptions")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON).content(Fixtures.PRESCRIPTION_BODY);
+
+        expect(pathTokenRequest, 200);
+        expect(bearerRequest, 201);
+        calls.set(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int pathToken(RepositoryCalls counters) throws Exception {
+        return perform(pathTokenRequest, counters);
+    }
+
+    @Benchmark
+    public int bearer(RepositoryCalls counters) throws Exception {
+        return perform(bearerRequest, counters);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCalls() {
+        calls.set(0);
+    }
+
+    private int perform(RequestBuilder request, RepositoryCalls counters) throws Exception {
+        try {
+            return mockMvc.perform(request).andReturn().getResponse().getStatus();
+        } finally {
+            // The security filter chain would clear it at the end of the request
+            SecurityContextHolder.clearContext();
+            counters.repositoryCalls += calls.getAndSet(0);
+        }
+    }
+
+    private void expect(RequestBuilder request, int status) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+        SecurityContextHolder.clearContext();
+        if (response.getStatus() != status) {
+            throw new IllegalStateException("Expected " + status + " but got " + response.getStatus()
+                + " " + response.getContentAsString());
+        }
+    }
+
+    /**
+     * A repository whose every call is counted. Methods named in {@code answers} return the
+     * given value; save returns its argument with an id; the rest return an empty result.
+     */
+    private <R> R counting(Class<R> repository, Map<String, Object> answers) {
+        Object stub = Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] {repository},
+            (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        default -> repository.getSimpleName() + " stub";
+                    };
+                }
+                calls.incrementAndGet();
+                if (answers.containsKey(method.getName())) {
+                    return answers.get(method.getName());
+                }
+                if (method.getName().equals("save") && args[0] instanceof Prescription prescription) {
+                    prescription.setId(Long.toHexString(calls.get()));
+                    return prescription;
+                }
+                Class<?> type = method.getReturnType();
+                if (type == Optional.class) {
+                    return Optional.empty();
+                }
+                if (Collection.class.isAssignableFrom(type)) {
+                    return List.of();
+                }
+                if (type == boolean.class) {
+                    return false;
+                }
+                if (type == int.class || type == long.class) {
+                    return type == int.class ? (Object) 0 : (Object) 0L;
+                }
+                return null;
+            });
+        return repository.cast(stub);
+    }
+}
@@ -0,0 +1,102 @@
+package com.project.app.config;
+
+import com.project.app.utils.AdaptiveConcurrencyLimit;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+/**
+ * Adaptive concurrency limits per endpoint group (booking, availability, dashboards, admin,
+ * auth), enforced by {@link ConcurrencyLimitFilter}. Being beans, the limits are bound to
+ * the meter registry (concurrency.limit, concurrency.in_flight, concurrency.rejected).
+ *
+ * The admin ceiling is the Hikari pool size minus app.concurrency.admin.reserved-connections,
+ * so admin reports and exports can never hold every connection while bookings wait.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    private final Environment env;
+
+    public ConcurrencyLimitConfig(Environment env) {
+        this.env = env;
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit bookingLimit() {
+        return limit("booking", 20, 4, 100);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit availabilityLimit() {
+        return limit("availability", 20, 2, 100);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit dashboardsLimit() {
+        return limit("dashboards", 20, 2, 100);
+    }
+
+    // Sign-in runs BCrypt, so the useful concurrency is bounded by cores
+    @Bean
+    public AdaptiveConcurrencyLimit authLimit() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return limit("auth", cores, 1, cores * 2);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit adminLimit(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        int reserved = env.getProperty("app.concurrency.admin.reserved-connections", Integer.class,
+            Math.max(2, poolSize / 2));
+        int ceiling = Math.max(1, poolSize - reserved);
+        return limit("admin", Math.min(4, ceiling), 1, ceiling);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Qualifier("bookingLimit") AdaptiveConcurrencyLimit booking,
+            @Qualifier("availabilityLimit") AdaptiveConcurrencyLimit availability,
+            @Qualifier("dashboardsLimit") AdaptiveConcurrencyLimit dashboards,
+            @Qualifier("authLimit") AdaptiveConcurrencyLimit auth,
+            @Qualifier("adminLimit") AdaptiveConcurrencyLimit admin) {
+        // First match wins
+        List<ConcurrencyLimitFilter.Route> routes = List.of(
+            new ConcurrencyLimitFilter.Route(null, "/api/auth/**", auth),
+            new ConcurrencyLimitFilter.Route(null, "/api/*/login", auth),
+            new ConcurrencyLimitFilter.Route(null, "/api/*/register", auth),
+            new ConcurrencyLimitFilter.Route(null, "/api/admin/**", admin),
+            new ConcurrencyLimitFilter.Route("GET", "/api/appointments/available-slots", availability),
+            new ConcurrencyLimitFilter.Route("GET", "/api/appointments/next-available", availability),
+            new ConcurrencyLimitFilter.Route("GET", "/api/doctors/*/availability", availability),
+            new ConcurrencyLimitFilter.Route("GET", "/api/doctors", availability),
+            new ConcurrencyLimitFilter.Route("!GET", "/api/**", booking),
+            new ConcurrencyLimitFilter.Route("GET", "/api/**", dashboards)
+        );
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+            new FilterRegistrationBean<>(new ConcurrencyLimitFilter(routes));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registration;
+    }
+
+    private AdaptiveConcurrencyLimit limit(String group, int initial, int min, int max) {
+        String prefix = "app.concurrency." + group + ".";
+        int maxLimit = env.getProperty(prefix + "max", Integer.class, max);
+        int minLimit = Math.min(env.getProperty(prefix + "min", Integer.class, min), maxLimit);
+        return new AdaptiveConcurrencyLimit(group,
+            env.getProperty(prefix + "initial", Integer.class, initial),
+            minLimit,
+            maxLimit,
+            env.getProperty("app.concurrency.latency-tolerance", Double.class, 2.0),
+            env.getProperty("app.concurrency.backoff", Double.class, 0.9));
+    }
+}
@@ -0,0 +1,117 @@
+package com.project.app.config;
+
+import com.project.app.utils.AdaptiveConcurrencyLimit;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds requests with 503 once their endpoint group is at its concurrency limit.
+ *
+ * Runs ahead of the security chain so a shed request costs no JWT parsing or user lookup.
+ * Requests that go async (streamed reports) hold their permit until the response completes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * Maps requests to a group; {@code method} is an HTTP method, "!GET" for any write, or null.
+     */
+    public record Route(String method, String pattern, AdaptiveConcurrencyLimit limit) {}
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Route> routes;
+
+    public ConcurrencyLimitFilter(List<Route> routes) {
+        this.routes = List.copyOf(routes);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AdaptiveConcurrencyLimit limit = limitFor(request.getMethod(), request.getServletPath());
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!limit.tryAcquire()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write("{\"error\":\"Server is busy, please retry shortly\"}");
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        release(limit, released, start, response.getStatus() >= 500);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        release(limit, released, start, true);
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        release(limit, released, start, true);
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                release(limit, released, start, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private static void release(AdaptiveConcurrencyLimit limit, AtomicBoolean released, long start, boolean dropped) {
+        if (released.compareAndSet(false, true)) {
+            limit.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    private AdaptiveConcurrencyLimit limitFor(String method, String path) {
+        for (Route route : routes) {
+            if (methodMatches(route.method(), method) && pathMatcher.match(route.pattern(), path)) {
+                return route.limit();
+            }
+        }
+        return null;
+    }
+
+    private static boolean methodMatches(String expected, String actual) {
+        if (expected == null) {
+            return true;
+        }
+        if ("!GET".equals(expected)) {
+            return !"GET".equals(actual) && !"HEAD".equals(actual);
+        }
+        return expected.equals(actual);
+    }
+}
@@ -0,0 +1,148 @@
+package com.project.app.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Jackson modules picked up by the application ObjectMapper, which WebMvcConfig also hands
+ * to the HTTP message converters. Blackbird replaces reflective getter calls with generated
+ * lambdas; the java.time serializers write the fixed formats the API uses
+ * (yyyy-MM-dd, HH:mm, yyyy-MM-dd'T'HH:mm:ss) digit by digit instead of through a
+ * DateTimeFormatter. Sub-second parts are still written when present; fields that the API
+ * has always sent to the second opt into {@link SecondsLocalDateTimeSerializer}.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public SimpleModule fixedFormatJavaTimeModule() {
+        return javaTimeModule();
+    }
+
+    /**
+     * Registered after the standard JavaTimeModule, so these serializers win. Reading is left
+     * to JavaTimeModule, whose ISO parsers accept everything written here.
+     */
+    public static SimpleModule javaTimeModule() {
+        SimpleModule module = new SimpleModule("fixed-format-java-time");
+        module.addSerializer(LocalDate.class, new LocalDateSerializer());
+        module.addSerializer(LocalTime.class, new LocalTimeSerializer());
+        module.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer());
+        return module;
+    }
+
+    // yyyy-MM-dd
+    static class LocalDateSerializer extends StdSerializer<LocalDate> {
+        LocalDateSerializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (!fourDigitYear(value.getYear())) {
+                gen.writeString(value.toString());
+                return;
+            }
+            char[] buf = new char[10];
+            writeDate(buf, value);
+            gen.writeString(buf, 0, buf.length);
+        }
+    }
+
+    // HH:mm, with seconds and fraction only when present (same as LocalTime.toString)
+    static class LocalTimeSerializer extends StdSerializer<LocalTime> {
+        LocalTimeSerializer() {
+            super(LocalTime.class);
+        }
+
+        @Override
+        public void serialize(LocalTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (value.getSecond() != 0 || value.getNano() != 0) {
+                gen.writeString(value.toString());
+                return;
+            }
+            char[] buf = new char[5];
+            writeTwoDigits(buf, 0, value.getHour());
+            buf[2] = ':';
+            writeTwoDigits(buf, 3, value.getMinute());
+            gen.writeString(buf, 0, buf.length);
+        }
+    }
+
+    // yyyy-MM-dd'T'HH:mm:ss, with the fraction only when present (same as ISO_LOCAL_DATE_TIME)
+    static class LocalDateTimeSerializer extends StdSerializer<LocalDateTime> {
+        private final boolean writeFraction;
+
+        LocalDateTimeSerializer() {
+            this(true);
+        }
+
+        LocalDateTimeSerializer(boolean writeFraction) {
+            super(LocalDateTime.class);
+            this.writeFraction = writeFraction;
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            boolean fraction = writeFraction && value.getNano() != 0;
+            if (fraction || !fourDigitYear(value.getYear())) {
+                gen.writeString((fraction ? value : value.withNano(0)).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                return;
+            }
+            char[] buf = new char[19];
+            writeDate(buf, value.toLocalDate());
+            buf[10] = 'T';
+            writeTwoDigits(buf, 11, value.getHour());
+            buf[13] = ':';
+            writeTwoDigits(buf, 14, value.getMinute());
+            buf[16] = ':';
+            writeTwoDigits(buf, 17, value.getSecond());
+            gen.writeString(buf, 0, buf.length);
+        }
+    }
+
+    /**
+     * yyyy-MM-dd'T'HH:mm:ss truncated to the second, for the DTO fields that were written
+     * with that @JsonFormat pattern before the fast serializers. Use with @JsonSerialize.
+     */
+    public static class SecondsLocalDateTimeSerializer extends LocalDateTimeSerializer {
+        public SecondsLocalDateTimeSerializer() {
+            super(false);
+        }
+    }
+
+    private static boolean fourDigitYear(int year) {
+        return year >= 0 && year <= 9999;
+    }
+
+    private static void writeDate(char[] buf, LocalDate date) {
+        int year = date.getYear();
+        writeTwoDigits(buf, 0, year / 100);
+        writeTwoDigits(buf, 2, year % 100);
+        buf[4] = '-';
+        writeTwoDigits(buf, 5, date.getMonthValue());
+        buf[7] = '-';
+        writeTwoDigits(buf, 8, date.getDayOfMonth());
+    }
+
+    private static void writeTwoDigits(char[] buf, int offset, int value) {
+        buf[offset] = (char) ('0' + value / 10);
+        buf[offset + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -0,0 +1,90 @@
+package com.project.app.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks how far the replica is behind the primary.
+ *
+ * Runs the configured lag query against the replica and reads the lag in seconds from the
+ * given column (MySQL: SHOW REPLICA STATUS / Seconds_Behind_Source). The replica is marked
+ * unusable when the lag exceeds the limit, replication is stopped (NULL lag) or the check
+ * fails. An empty lag query disables the check, e.g. for H2 stand-ins.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final long maxLagSeconds;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean replicaUsable = true;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, String lagColumn,
+                             long maxLagSeconds, long checkIntervalMs) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLagSeconds = maxLagSeconds;
+
+        if (lagQuery == null || lagQuery.isBlank()) {
+            this.scheduler = null;
+            return;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::check, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    void check() {
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                // Not configured as a replica at all
+                usable = false;
+                logger.warn("Replica lag query returned no rows; routing reads to primary");
+            } else {
+                long lag = rs.getLong(lagColumn);
+                usable = !rs.wasNull() && lag <= maxLagSeconds;
+                if (!usable) {
+                    logger.warn("Replica lag {}s exceeds {}s (or replication stopped); routing reads to primary",
+                        rs.wasNull() ? "NULL" : lag, maxLagSeconds);
+                }
+            }
+        } catch (Exception e) {
+            usable = false;
+            logger.warn("Replica lag check failed: {}", e.getMessage());
+        }
+        if (usable != replicaUsable) {
+            logger.info("Replica is now {}", usable ? "in use" : "bypassed");
+        }
+        replicaUsable = usable;
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.project.app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Primary/replica DataSource setup, active only when app.datasource.replica.url is set.
+ *
+ * Writes and read-write transactions use the primary pool (spring.datasource.*), while
+ * {@code @Transactional(readOnly = true)} methods are routed to the replica pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        dataSource.setPoolName("primary-pool");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+        dataSource.setPoolName("replica-pool");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${app.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+            @Value("${app.datasource.replica.lag-column:Seconds_Behind_Source}") String lagColumn,
+            @Value("${app.datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+            @Value("${app.datasource.replica.lag-check-interval-ms:1000}") long checkIntervalMs) {
+        return new ReplicaLagMonitor(replica, lagQuery, lagColumn, maxLagSeconds, checkIntervalMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagMonitor lagMonitor,
+            @Value("${app.datasource.replica.read-your-writes-ms:5000}") long stickinessMs) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(lagMonitor, stickinessMs);
+        routing.setTargetDataSources(Map.of(
+            ReplicaRoutingDataSource.PRIMARY, primary,
+            ReplicaRoutingDataSource.REPLICA, replica
+        ));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        // Defer the routing decision until the first statement, after the tx is marked read-only
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
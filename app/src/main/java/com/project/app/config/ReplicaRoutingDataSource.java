@@ -0,0 +1,85 @@
+package com.project.app.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes read-only transactions to the replica pool and everything else to the primary.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy so the lookup key is resolved after
+ * the transaction has been marked read-only. A user who just wrote through the primary
+ * keeps reading from the primary for the stickiness window (read-your-writes), and all
+ * reads fall back to the primary while the lag monitor reports the replica as unhealthy.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final String ANONYMOUS = "";
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final long stickinessMillis;
+
+    // username -> epoch millis until which reads stay on the primary
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, long stickinessMillis) {
+        this.lagMonitor = lagMonitor;
+        this.stickinessMillis = stickinessMillis;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        long now = System.currentTimeMillis();
+        sweepExpired(now);
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Only real write transactions make the user sticky, not plain non-transactional reads
+            if (TransactionSynchronizationManager.isActualTransactionActive() && !ANONYMOUS.equals(user)) {
+                stickyUntil.put(user, now + stickinessMillis);
+            }
+            return PRIMARY;
+        }
+
+        Long until = stickyUntil.get(user);
+        if (until != null) {
+            if (until > now) {
+                return PRIMARY;
+            }
+            stickyUntil.remove(user, until);
+        }
+
+        return lagMonitor.isReplicaUsable() ? REPLICA : PRIMARY;
+    }
+
+    /**
+     * Drop the entries of users who have not read again since their window ran out. Runs at
+     * most once per stickiness window, so the map stays bounded by the users who wrote
+     * within roughly the last two windows.
+     */
+    private void sweepExpired(long now) {
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + stickinessMillis)) {
+            return;
+        }
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+
+    int stickyUserCount() {
+        return stickyUntil.size();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getName() != null ? authentication.getName() : ANONYMOUS;
+    }
+}
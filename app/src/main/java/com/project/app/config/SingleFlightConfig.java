@@ -0,0 +1,32 @@
+package com.project.app.config;
+
+import com.project.app.dtos.DoctorDTO;
+import com.project.app.utils.SingleFlight;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-flight groups for hot read paths. Being beans, they are bound to the meter
+ * registry automatically (singleflight.calls{name,result}, singleflight.in_flight{name}).
+ */
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight<String, List<DoctorDTO>> doctorListFlight() {
+        return new SingleFlight<>("doctors.list");
+    }
+
+    @Bean
+    public SingleFlight<String, List<String>> availableSlotsFlight() {
+        return new SingleFlight<>("appointments.available-slots");
+    }
+
+    @Bean
+    public SingleFlight<String, Map<String, Object>> adminDoctorsFlight() {
+        return new SingleFlight<>("admin.doctors");
+    }
+}
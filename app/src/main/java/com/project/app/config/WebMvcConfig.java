@@ -1,21 +1,51 @@
 package com.project.app.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.project.app.security.CurrentUserArgumentResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.resource.PathResourceResolver;
 import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableWebMvc
 public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Streamed bodies (reports, exports) are written asynchronously and must finish within this
+    @Value("${app.mvc.async-timeout-ms:1800000}")
+    private long asyncTimeoutMs;
+
+    // Threads that write streamed bodies; a full queue turns new streams away with 503
+    @Value("${app.mvc.async-executor.core-size:4}")
+    private int asyncCoreSize;
+
+    @Value("${app.mvc.async-executor.max-size:16}")
+    private int asyncMaxSize;
+
+    @Value("${app.mvc.async-executor.queue-capacity:32}")
+    private int asyncQueueCapacity;
     
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
@@ -64,4 +94,47 @@ public class WebMvcConfig implements WebMvcConfigurer {
         registry.addViewController("/").setViewName("forward:/index.html");
         registry.addViewController("/admin").setViewName("forward:/admin/dashboard");
     }
+    
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        // @CurrentUser parameters: the authenticated user or its id
+        resolvers.add(new CurrentUserArgumentResolver());
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+    }
+
+    /**
+     * Runs StreamingResponseBody writers (exports, daily reports). Without it Spring MVC falls
+     * back to a SimpleAsyncTaskExecutor, which starts an unbounded thread per stream.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("mvc-stream-");
+        executor.setCorePoolSize(asyncCoreSize);
+        executor.setMaxPoolSize(Math.max(asyncCoreSize, asyncMaxSize));
+        executor.setQueueCapacity(asyncQueueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // @EnableWebMvc builds its own ObjectMappers; use the application one instead, so
+        // responses get the modules from JacksonConfig and the spring.jackson.* settings.
+        // The CBOR converter (Accept/Content-Type: application/cbor) gets a copy of it on
+        // a CBOR factory, so both formats carry the same DTOs and the same field formats.
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2HttpMessageConverter jackson) {
+                jackson.setObjectMapper(objectMapper);
+            } else if (converter instanceof MappingJackson2CborHttpMessageConverter cbor) {
+                cbor.setObjectMapper(objectMapper.copyWith(new CBORFactory()));
+            }
+        }
+    }
 }
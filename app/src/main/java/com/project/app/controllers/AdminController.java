@@ -4,12 +4,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
 import java.util.Map;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import com.project.app.services.AppService;
+import com.project.app.services.AvailabilityService;
+import com.project.app.services.DailyReportService;
+import com.project.app.services.ExportService;
+import com.project.app.dtos.AvailabilityDTO;
+import com.project.app.dtos.AvailabilityOverrideDTO;
+import com.project.app.dtos.DailyReportDTO;
 import com.project.app.dtos.DoctorDTO;
+import com.project.app.dtos.ExportFilter;
+import com.project.app.exceptions.ValidationException;
+import com.project.app.models.AppointmentStatus;
 import com.project.app.models.Doctor;
 import com.project.app.repositories.DoctorRepo;
 import jakarta.validation.Valid;
@@ -27,55 +40,42 @@ public class AdminController {
     @Autowired
     private DoctorRepo doctorRepository;
 
+    @Autowired
+    private DailyReportService dailyReportService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private ExportService exportService;
+
     // Login is now handled by AuthController at /api/auth/signin
 
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> dashboard(@RequestParam(required = false) String specialty) {
-        try {
-            System.out.println("=== Admin dashboard endpoint called with specialty: " + specialty + " ===");
-            Map<String, Object> result = appService.getDoctors(specialty);
-            System.out.println("Returning response: " + result);
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            System.err.println("Error in admin dashboard: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to load dashboard: " + e.getMessage()));
-        }
+        System.out.println("=== Admin dashboard endpoint called with specialty: " + specialty + " ===");
+        Map<String, Object> result = appService.getDoctors(specialty);
+        System.out.println("Returning response: " + result);
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping("/stats")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getStatistics() {
-        try {
-            return ResponseEntity.ok(appService.getDoctors());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch statistics: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(appService.getDoctors());
     }
 
     @GetMapping("/doctors")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getAllDoctors() {
-        try {
-            return ResponseEntity.ok(appService.getAllDoctors());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch doctors: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(appService.getAllDoctors());
     }
 
     @PostMapping("/doctors")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> createDoctor(@Valid @RequestBody DoctorDTO doctorDTO) {
-        try {
-            return ResponseEntity.ok(appService.createDoctor(doctorDTO));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to create doctor: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(appService.createDoctor(doctorDTO));
     }
 
     @PutMapping("/doctors/{id}")
@@ -83,60 +83,160 @@ public class AdminController {
     public ResponseEntity<?> updateDoctor(
             @PathVariable Long id,
             @Valid @RequestBody DoctorDTO doctorDTO) {
-        try {
-            return ResponseEntity.ok(appService.updateDoctor(id, doctorDTO));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to update doctor: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(appService.updateDoctor(id, doctorDTO));
     }
 
     @DeleteMapping("/doctors/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteDoctor(@PathVariable Long id) {
-        try {
-            appService.deleteDoctor(id);
-            return ResponseEntity.ok().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to delete doctor: " + e.getMessage()));
-        }
+        appService.deleteDoctor(id);
+        return ResponseEntity.ok().build();
     }
 
     @GetMapping("/patients")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getAllPatients() {
-        try {
-            return ResponseEntity.ok(appService.getAllPatients());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch patients: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(appService.getAllPatients());
     }
 
     @GetMapping("/appointments")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getAllAppointments(
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String date) {
-        try {
-            return ResponseEntity.ok(appService.getAllAppointments(status, date));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch appointments: " + e.getMessage()));
-        }
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(appService.getAllAppointments(status, date));
     }
 
     @GetMapping("/prescriptions")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getAllPrescriptions(
-            @RequestParam(required = false) String doctorId,
-            @RequestParam(required = false) String patientId) {
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) Long patientId) {
+        return ResponseEntity.ok(appService.getAllPrescriptions(doctorId, patientId));
+    }
+
+    /**
+     * Daily per-doctor appointment sheets, streamed as JSON (default) or CSV.
+     */
+    @GetMapping("/reports/daily")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDailyReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(defaultValue = "json") String format,
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        DailyReportDTO report = dailyReportService.forDoctor(
+            dailyReportService.getReport(date, refresh), doctorId);
+
+        if ("csv".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = out -> dailyReportService.writeCsv(report, out);
+            return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv"))
+                .header("Content-Disposition", "attachment; filename=\"daily-report-" + date + ".csv\"")
+                .body(body);
+        }
+        StreamingResponseBody body = out -> dailyReportService.writeJson(report, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
+    @GetMapping("/doctors/{id}/availability")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDoctorAvailability(@PathVariable Long id) {
+        return ResponseEntity.ok(availabilityService.getAvailability(id));
+    }
+
+    @PutMapping("/doctors/{id}/availability")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateDoctorAvailability(
+            @PathVariable Long id,
+            @RequestBody AvailabilityDTO availability) {
+        return ResponseEntity.ok(availabilityService.updateTemplate(id, availability));
+    }
+
+    @PutMapping("/doctors/{id}/availability/overrides")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> putAvailabilityOverride(
+            @PathVariable Long id,
+            @Valid @RequestBody AvailabilityOverrideDTO override) {
+        return ResponseEntity.ok(availabilityService.putOverride(id, override));
+    }
+
+    @DeleteMapping("/doctors/{id}/availability/overrides/{date}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> deleteAvailabilityOverride(
+            @PathVariable Long id,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        availabilityService.deleteOverride(id, date);
+        return ResponseEntity.ok(Map.of("message", "Availability override removed"));
+    }
+
+    /**
+     * Stream appointments as CSV (default) or NDJSON, optionally gzipped. All filters are optional;
+     * {@code to} is inclusive.
+     */
+    @GetMapping("/export/appointments")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFilter filter = exportFilter(from, to, doctorId);
+        AppointmentStatus appointmentStatus;
         try {
-            return ResponseEntity.ok(appService.getAllPrescriptions(doctorId, patientId));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch prescriptions: " + e.getMessage()));
+            appointmentStatus = status != null ? AppointmentStatus.parse(status) : null;
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid appointment status: " + status);
         }
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        return export("appointments", exportFormat, gzip,
+            out -> exportService.exportAppointments(filter, appointmentStatus, exportFormat, out));
+    }
+
+    /**
+     * Stream prescriptions as CSV (default) or NDJSON, optionally gzipped. All filters are optional;
+     * {@code to} is inclusive and applies to the prescription date.
+     */
+    @GetMapping("/export/prescriptions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportPrescriptions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFilter filter = exportFilter(from, to, doctorId);
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        return export("prescriptions", exportFormat, gzip,
+            out -> exportService.exportPrescriptions(filter, status, exportFormat, out));
+    }
+
+    private static ExportFilter exportFilter(LocalDate from, LocalDate to, Long doctorId) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new ValidationException("'to' must not be before 'from'");
+        }
+        return new ExportFilter(from, to, doctorId);
+    }
+
+    // Filters are checked before this point, so failures still get a problem+json 400
+    private static ResponseEntity<StreamingResponseBody> export(String name, ExportService.Format format,
+                                                                boolean gzip, StreamingResponseBody rows) {
+        String filename = name + "." + format.extension() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? new MediaType("application", "gzip")
+            : format == ExportService.Format.CSV ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON;
+        StreamingResponseBody body = !gzip ? rows : out -> {
+            GZIPOutputStream zip = new GZIPOutputStream(out, 64 * 1024);
+            rows.writeTo(zip);
+            zip.finish();
+        };
+        return ResponseEntity.ok()
+            .contentType(contentType)
+            .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
+            .body(body);
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,17 @@
 package com.project.app.controllers;
 
+import com.project.app.dtos.BookingRequest;
 import com.project.app.services.AppointmentService;
+import com.project.app.services.IdempotencyService;
 import com.project.app.models.Appointment;
+import com.project.app.security.CurrentUser;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.http.HttpStatus;
+import java.time.LocalDate;
 import java.util.Map;
 import java.security.Principal;
 
@@ -17,58 +23,64 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/book")
-    public ResponseEntity<?> createAppointment(@RequestBody Map<String, Object> bookingData) {
-        try {
-            return appointmentService.bookAppointment(bookingData);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to create appointment: " + e.getMessage()));
-        }
+    public ResponseEntity<?> createAppointment(
+            @Valid @RequestBody BookingRequest booking,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey,
+            Principal principal) {
+        String caller = principal != null ? principal.getName() : "anonymous";
+        return idempotencyService.execute("appointments/book:" + caller, idempotencyKey, booking,
+            () -> ResponseEntity.ok(Map.of(
+                "message", "Appointment booked successfully",
+                "appointmentId", appointmentService.bookAppointment(booking)
+            )));
     }
 
     @PostMapping("/{id}/cancel")
     public ResponseEntity<?> cancelAppointment(@PathVariable Long id) {
-        try {
-            return appointmentService.cancelAppointment(id);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to cancel appointment: " + e.getMessage()));
-        }
+        appointmentService.cancelAppointment(id);
+        return ResponseEntity.ok(Map.of("message", "Appointment cancelled successfully"));
     }
 
     @GetMapping("/available-slots")
     public ResponseEntity<?> getAvailableSlots(
             @RequestParam Long doctorId,
-            @RequestParam String date) {
-        try {
-            return appointmentService.getAvailableSlots(doctorId, date);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch available slots: " + e.getMessage()));
-        }
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(Map.of("availableSlots", appointmentService.getAvailableSlots(doctorId, date)));
+    }
+
+    @GetMapping("/next-available")
+    public ResponseEntity<?> getNextAvailableSlots(
+            @RequestParam String specialty,
+            @RequestParam(defaultValue = "5") int count,
+            @RequestParam(defaultValue = "14") int days) {
+        return ResponseEntity.ok(appointmentService.getNextAvailableSlots(specialty, count, days));
     }
 
     @GetMapping("/upcoming")
     public ResponseEntity<?> getUpcomingAppointments(@RequestParam Long patientId) {
-        try {
-            return appointmentService.getUpcomingAppointments(patientId);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch upcoming appointments: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(Map.of("appointments", appointmentService.getUpcomingAppointments(patientId)));
     }
 
     @GetMapping("/history")
     public ResponseEntity<?> getAppointmentHistory(
             @RequestParam String email,
-            @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
-        try {
-            return appointmentService.getAppointmentHistory(email, startDate, endDate);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch appointment history: " + e.getMessage()));
-        }
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(Map.of("appointments",
+            appointmentService.getAppointmentHistory(email, startDate, endDate)));
+    }
+
+    @GetMapping("/me/history")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> getMyAppointmentHistory(
+            @CurrentUser Long patientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(Map.of("appointments",
+            appointmentService.getAppointmentHistory(patientId, startDate, endDate)));
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,24 @@
 package com.project.app.controllers;
 
+import com.project.app.dtos.AppointmentDTO;
+import com.project.app.dtos.AppointmentStatusBatchDTO;
+import com.project.app.dtos.AppointmentStatusBatchResult;
 import com.project.app.dtos.DoctorDTO;
+import com.project.app.dtos.DoctorPatientDTO;
+import com.project.app.dtos.PrescriptionRequest;
+import com.project.app.exceptions.ValidationException;
+import com.project.app.security.CurrentUser;
 import com.project.app.services.DoctorService;
+import com.project.app.services.IdempotencyService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
+import java.time.LocalDate;
 import java.util.Map;
 import java.util.List;
 
@@ -18,121 +30,81 @@ public class DoctorController {
     @Autowired
     private DoctorService doctorService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @GetMapping
     public ResponseEntity<?> getAllDoctors(
             @RequestParam(required = false) String specialty,
             @RequestParam(required = false) String time) {
-        try {
-            List<DoctorDTO> doctors = doctorService.getAllDoctorsAsDTOs();
-            
-            // Apply filters if provided
-            if (specialty != null && !specialty.isEmpty()) {
-                doctors = doctors.stream()
-                    .filter(doctor -> specialty.equalsIgnoreCase(doctor.getSpecialty()))
-                    .collect(java.util.stream.Collectors.toList());
-            }
-            
-            if (time != null && !time.isEmpty()) {
-                doctors = doctors.stream()
-                    .filter(doctor -> doctor.getAvailableTimes() != null && 
-                        doctor.getAvailableTimes().stream()
-                            .anyMatch(slot -> slot.toUpperCase().contains(time.toUpperCase())))
-                    .collect(java.util.stream.Collectors.toList());
-            }
-            
-            return ResponseEntity.ok(Map.of("doctors", doctors));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch doctors: " + e.getMessage()));
+        List<DoctorDTO> doctors = doctorService.getAllDoctorsAsDTOs();
+
+        // Apply filters if provided
+        if (specialty != null && !specialty.isEmpty()) {
+            doctors = doctors.stream()
+                .filter(doctor -> specialty.equalsIgnoreCase(doctor.getSpecialty()))
+                .collect(java.util.stream.Collectors.toList());
         }
+
+        if (time != null && !time.isEmpty()) {
+            doctors = doctorService.filterByAvailableTime(doctors, time);
+        }
+
+        return ResponseEntity.ok(Map.of("doctors", doctors));
     }
 
     @PostMapping("/register")
     public ResponseEntity<?> registerDoctor(@Valid @RequestBody DoctorDTO doctorDTO) {
-        try {
-            return doctorService.registerDoctor(doctorDTO);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Registration failed: " + e.getMessage()));
-        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(Map.of(
+                "message", "Doctor registered successfully",
+                "doctor", doctorService.registerDoctor(doctorDTO)
+            ));
     }
 
     @GetMapping("/profile/{email}")
     public ResponseEntity<?> getProfile(@PathVariable String email) {
-        try {
-            return doctorService.getDoctorProfile(email);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch profile: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(doctorService.getDoctorProfile(email));
     }
 
     @PutMapping("/profile/{email}")
     public ResponseEntity<?> updateProfile(
             @PathVariable String email,
             @Valid @RequestBody DoctorDTO doctorDTO) {
-        try {
-            return doctorService.updateDoctorProfile(email, doctorDTO);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to update profile: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(doctorService.updateDoctorProfile(email, doctorDTO));
     }
 
     @GetMapping("/{email}/appointments")
     public ResponseEntity<?> getAppointments(@PathVariable String email) {
-        try {
-            return doctorService.getDoctorAppointments(email);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch appointments: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(Map.of("appointments", doctorService.getDoctorAppointments(email)));
     }
 
     @GetMapping("/{email}/prescriptions")
     public ResponseEntity<?> getPrescriptions(@PathVariable String email) {
-        try {
-            return doctorService.getDoctorPrescriptions(email);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch prescriptions: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(Map.of("prescriptions", doctorService.getDoctorPrescriptions(email)));
     }
 
     @PostMapping("/{email}/prescriptions")
     public ResponseEntity<?> createPrescription(
             @PathVariable String email,
-            @Valid @RequestBody Map<String, Object> prescriptionData) {
-        try {
-            return doctorService.createPrescription(email, prescriptionData);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to create prescription: " + e.getMessage()));
-        }
+            @Valid @RequestBody PrescriptionRequest prescription,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("doctors/prescriptions:" + email, idempotencyKey, prescription,
+            () -> ResponseEntity.ok(doctorService.createPrescription(email, prescription)));
     }
 
     @GetMapping("/{id}/availability")
     public ResponseEntity<?> getAvailability(
             @PathVariable Long id,
-            @RequestParam String date) {
-        try {
-            return doctorService.getDoctorAvailability(id, date);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch availability: " + e.getMessage()));
-        }
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(Map.of("availableSlots", doctorService.getDoctorAvailability(id, date)));
     }
 
     @GetMapping("/{email}/appointments/{id}")
     public ResponseEntity<?> getAppointmentDetails(
             @PathVariable String email,
             @PathVariable Long id) {
-        try {
-            return doctorService.getAppointmentDetails(email, id);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch appointment details: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(doctorService.getAppointmentDetails(email, id));
     }
 
     @PutMapping("/{email}/appointments/{id}/status")
@@ -140,39 +112,128 @@ public class DoctorController {
             @PathVariable String email,
             @PathVariable Long id,
             @RequestBody Map<String, String> statusUpdate) {
-        try {
-            String newStatus = statusUpdate.get("status");
-            if (newStatus == null) {
-                return ResponseEntity.badRequest()
-                    .body(Map.of("error", "Status is required"));
-            }
-            return doctorService.updateAppointmentStatus(email, id, newStatus);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to update appointment status: " + e.getMessage()));
-        }
+        return statusUpdated(doctorService.updateAppointmentStatus(email, id, requireStatus(statusUpdate)));
+    }
+
+    @PutMapping("/{email}/appointments/status")
+    @PreAuthorize("hasRole('DOCTOR') and #email.equalsIgnoreCase(principal.username)")
+    public ResponseEntity<?> updateAppointmentStatuses(
+            @PathVariable String email,
+            @Valid @RequestBody AppointmentStatusBatchDTO statusBatch) {
+        return statusesUpdated(doctorService.updateAppointmentStatuses(
+            email, statusBatch.getAppointmentIds(), statusBatch.getStatus()));
     }
 
     @GetMapping("/{email}/schedule")
     public ResponseEntity<?> getSchedule(
             @PathVariable String email,
-            @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
-        try {
-            return doctorService.getDoctorSchedule(email, startDate, endDate);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch schedule: " + e.getMessage()));
-        }
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(Map.of("schedule", doctorService.getDoctorSchedule(email, startDate, endDate)));
     }
 
     @GetMapping("/{email}/patients")
-    public ResponseEntity<?> getPatients(@PathVariable String email) {
-        try {
-            return doctorService.getDoctorPatients(email);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch patients: " + e.getMessage()));
+    public ResponseEntity<?> getPatients(
+            @PathVariable String email,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "lastVisit") String sort) {
+        return patientsPage(doctorService.getDoctorPatients(email, page, size, sort));
+    }
+
+    // Endpoints for the signed-in doctor, keyed by the id carried in the access token
+
+    @GetMapping("/me/appointments")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> getMyAppointments(@CurrentUser Long doctorId) {
+        return ResponseEntity.ok(Map.of("appointments", doctorService.getDoctorAppointments(doctorId)));
+    }
+
+    @GetMapping("/me/appointments/{id}")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> getMyAppointmentDetails(@CurrentUser Long doctorId, @PathVariable Long id) {
+        return ResponseEntity.ok(doctorService.getAppointmentDetails(doctorId, id));
+    }
+
+    @PutMapping("/me/appointments/{id}/status")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> updateMyAppointmentStatus(
+            @CurrentUser Long doctorId,
+            @PathVariable Long id,
+            @RequestBody Map<String, String> statusUpdate) {
+        return statusUpdated(doctorService.updateAppointmentStatus(doctorId, id, requireStatus(statusUpdate)));
+    }
+
+    @PutMapping("/me/appointments/status")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> updateMyAppointmentStatuses(
+            @CurrentUser Long doctorId,
+            @Valid @RequestBody AppointmentStatusBatchDTO statusBatch) {
+        return statusesUpdated(doctorService.updateAppointmentStatuses(
+            doctorId, statusBatch.getAppointmentIds(), statusBatch.getStatus()));
+    }
+
+    @GetMapping("/me/prescriptions")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> getMyPrescriptions(@CurrentUser Long doctorId) {
+        return ResponseEntity.ok(Map.of("prescriptions", doctorService.getDoctorPrescriptions(doctorId)));
+    }
+
+    @GetMapping("/me/schedule")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> getMySchedule(
+            @CurrentUser Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(Map.of("schedule", doctorService.getDoctorSchedule(doctorId, startDate, endDate)));
+    }
+
+    @GetMapping("/me/patients")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> getMyPatients(
+            @CurrentUser Long doctorId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "lastVisit") String sort) {
+        return patientsPage(doctorService.getDoctorPatients(doctorId, page, size, sort));
+    }
+
+    private static String requireStatus(Map<String, String> statusUpdate) {
+        String newStatus = statusUpdate.get("status");
+        if (newStatus == null) {
+            throw new ValidationException("Status is required");
         }
+        return newStatus;
+    }
+
+    private static ResponseEntity<?> statusUpdated(AppointmentDTO appointment) {
+        return ResponseEntity.ok(Map.of(
+            "message", "Appointment status updated successfully",
+            "appointment", appointment
+        ));
+    }
+
+    // 200 once the change has committed, 202 while it is still queued behind the write-behind buffer
+    private static ResponseEntity<?> statusesUpdated(AppointmentStatusBatchResult result) {
+        if (result.queued()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "message", "Appointment status update queued",
+                "queued", result.count()
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "message", "Appointment statuses updated successfully",
+            "updated", result.count()
+        ));
+    }
+
+    private static ResponseEntity<?> patientsPage(Page<DoctorPatientDTO> patients) {
+        return ResponseEntity.ok(Map.of(
+            "patients", patients.getContent(),
+            "page", patients.getNumber(),
+            "size", patients.getSize(),
+            "totalElements", patients.getTotalElements(),
+            "totalPages", patients.getTotalPages()
+        ));
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,14 @@
 package com.project.app.controllers;
 
 import com.project.app.dtos.PatientDTO;
+import com.project.app.exceptions.ValidationException;
+import com.project.app.security.CurrentUser;
 import com.project.app.services.PatientService;
+import com.project.app.services.PatientTimelineService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
 import java.util.Map;
@@ -17,70 +21,80 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientTimelineService patientTimelineService;
+
     @PostMapping("/register")
     public ResponseEntity<?> registerPatient(@Valid @RequestBody PatientDTO patientDTO) {
-        try {
-            return patientService.registerPatient(patientDTO);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Registration failed: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(Map.of(
+            "message", "Registration successful",
+            "patient", patientService.registerPatient(patientDTO)
+        ));
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
-        try {
-            if (credentials.get("email") == null || credentials.get("password") == null) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Email and password are required"
-                ));
-            }
-            return patientService.login(credentials);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Login failed: " + e.getMessage()));
+        String email = credentials.get("email");
+        String password = credentials.get("password");
+        if (email == null || password == null) {
+            throw new ValidationException("Email and password are required");
         }
+        return patientService.login(email, password)
+            .<ResponseEntity<?>>map(patient -> ResponseEntity.ok(Map.of("patient", patient)))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("error", "Invalid credentials")));
     }
 
     @GetMapping("/profile/{email}")
     public ResponseEntity<?> getProfile(@PathVariable String email) {
-        try {
-            return patientService.getPatientProfile(email);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch profile: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(patientService.getPatientProfile(email));
     }
 
     @PutMapping("/profile/{email}")
     public ResponseEntity<?> updateProfile(
             @PathVariable String email,
             @Valid @RequestBody PatientDTO patientDTO) {
-        try {
-            return patientService.updatePatientProfile(email, patientDTO);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to update profile: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(patientService.updatePatientProfile(email, patientDTO));
     }
 
     @GetMapping("/{email}/appointments")
     public ResponseEntity<?> getAppointments(@PathVariable String email) {
-        try {
-            return patientService.getPatientAppointments(email);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch appointments: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(Map.of("appointments", patientService.getPatientAppointments(email)));
     }
 
     @GetMapping("/{email}/prescriptions")
     public ResponseEntity<?> getPrescriptions(@PathVariable String email) {
-        try {
-            return patientService.getPatientPrescriptions(email);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch prescriptions: " + e.getMessage()));
-        }
+        return ResponseEntity.ok(Map.of("prescriptions", patientService.getPatientPrescriptions(email)));
+    }
+
+    @GetMapping("/{email}/timeline")
+    public ResponseEntity<?> getTimeline(
+            @PathVariable String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(patientTimelineService.getPatientTimeline(email, cursor, limit));
+    }
+
+    // Endpoints for the signed-in patient, keyed by the id carried in the access token
+
+    @GetMapping("/me/appointments")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> getMyAppointments(@CurrentUser Long patientId) {
+        return ResponseEntity.ok(Map.of("appointments", patientService.getPatientAppointments(patientId)));
+    }
+
+    @GetMapping("/me/prescriptions")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> getMyPrescriptions(@CurrentUser Long patientId) {
+        return ResponseEntity.ok(Map.of("prescriptions", patientService.getPatientPrescriptions(patientId)));
+    }
+
+    @GetMapping("/me/timeline")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> getMyTimeline(
+            @CurrentUser Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(patientTimelineService.getPatientTimeline(patientId, cursor, limit));
     }
-}
\ No newline at end of file
+}
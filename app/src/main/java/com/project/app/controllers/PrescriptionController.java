@@ -1,16 +1,27 @@
 package com.project.app.controllers;
 
+import com.project.app.dtos.PrescriptionRequest;
 import com.project.app.services.PrescriptionService;
-import com.project.app.services.AppService;
+import com.project.app.services.IdempotencyService;
 import com.project.app.models.Prescription;
+import com.project.app.security.CurrentUser;
+import com.project.app.security.UserDetailsImpl;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.CacheControl;
+import java.net.URI;
 import java.util.Map;
 
+/**
+ * Prescriptions, authenticated with the bearer token like the rest of the API. The caller
+ * comes from the security context, so no request here re-validates the token or reloads
+ * the user.
+ */
 @RestController
-@RequestMapping("/api/prescription")
+@RequestMapping("/api/prescriptions")
 @CrossOrigin(origins = "*")
 public class PrescriptionController {
 
@@ -18,55 +29,97 @@ public class PrescriptionController {
     private PrescriptionService prescriptionService;
 
     @Autowired
-    private AppService appService;
+    private IdempotencyService idempotencyService;
 
     /**
-     * Save a new prescription
-     * @param token The authentication token for the doctor
+     * Save a new prescription for the signed-in doctor
+     * @param doctorId The id of the authenticated doctor, who becomes the prescriber
      * @param prescription The prescription details to be saved
-     * @return Response with success message or error
+     * @param idempotencyKey Optional key; a retry with the same key replays the first response
+     * @return 201 with the new prescription's id and location, or error
      */
-    @PostMapping("/{token}")
-    public ResponseEntity<?> savePrescription(@PathVariable String token, @RequestBody Prescription prescription) {
-        try {
-            // Validate the token to ensure request is from a doctor
-            if (!appService.validateToken(token)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Invalid or expired token. Only doctors can save prescriptions."));
-            }
-
-            // Save the prescription
-            return prescriptionService.savePrescription(prescription);
+    @PostMapping
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> savePrescription(
+            @CurrentUser Long doctorId,
+            @Valid @RequestBody PrescriptionRequest prescription,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("prescriptions:" + doctorId, idempotencyKey, prescription, () -> {
+            Prescription saved = prescriptionService.savePrescription(doctorId, prescription);
+            return ResponseEntity.created(URI.create("/api/prescriptions/" + saved.getId()))
+                .body(Map.of(
+                    "message", "Prescription saved",
+                    "id", saved.getId()
+                ));
+        });
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to save prescription: " + e.getMessage()));
-        }
+    /**
+     * Get a prescription by ID
+     * @param id The ID of the prescription
+     * @param user The authenticated user; must be its doctor, its patient or an admin
+     * @return Response with prescription details and an ETag, or error message
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('DOCTOR', 'PATIENT', 'ADMIN')")
+    public ResponseEntity<?> getPrescription(@PathVariable String id, @CurrentUser UserDetailsImpl user) {
+        return cacheable(prescriptionService.getPrescription(id, user));
     }
 
     /**
      * Get prescription by appointment ID
      * @param appointmentId The ID of the appointment to retrieve the prescription for
-     * @param token The authentication token for the doctor
-     * @return Response with prescription details or error message
+     * @param user The authenticated user; must be its doctor, its patient or an admin
+     * @return Response with prescription details and an ETag, or error message
      */
-    @GetMapping("/{appointmentId}/{token}")
-    public ResponseEntity<?> getPrescriptionByAppointmentId(@PathVariable String appointmentId, @PathVariable String token) {
-        try {
-            // Validate the token to ensure request is from a valid doctor
-            if (!appService.validateToken(token)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Invalid or expired token. Only doctors can access prescriptions."));
-            }
+    @GetMapping("/appointment/{appointmentId}")
+    @PreAuthorize("hasAnyRole('DOCTOR', 'PATIENT', 'ADMIN')")
+    public ResponseEntity<?> getPrescriptionByAppointmentId(
+            @PathVariable Long appointmentId,
+            @CurrentUser UserDetailsImpl user) {
+        return cacheable(prescriptionService.getPrescriptionByAppointmentId(appointmentId, user));
+    }
 
-            // Get prescription by appointment ID
-            Long appointmentIdLong = Long.parseLong(appointmentId);
-            return prescriptionService.getPrescriptionByAppointmentId(appointmentIdLong);
+    /**
+     * Page through a patient's prescriptions, newest first, as lean summaries
+     * @param patientId The ID of the patient; patients may only read their own
+     * @param page Zero-based page number
+     * @param size Page size (capped at 100)
+     * @return Response with one page of prescription summaries
+     */
+    @GetMapping("/patient/{patientId}")
+    @PreAuthorize("hasAnyRole('DOCTOR', 'ADMIN') or (hasRole('PATIENT') and #patientId == principal.id)")
+    public ResponseEntity<?> getPatientPrescriptions(
+            @PathVariable Long patientId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(prescriptionService.getPatientPrescriptionPage(patientId, page, size));
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to retrieve prescription: " + e.getMessage()));
-        }
+    /**
+     * Page through a doctor's prescriptions, newest first, as lean summaries
+     * @param doctorId The ID of the doctor; doctors may only read their own
+     * @param page Zero-based page number
+     * @param size Page size (capped at 100)
+     * @return Response with one page of prescription summaries
+     */
+    @GetMapping("/doctor/{doctorId}")
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('DOCTOR') and #doctorId == principal.id)")
+    public ResponseEntity<?> getDoctorPrescriptions(
+            @PathVariable Long doctorId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(prescriptionService.getDoctorPrescriptionPage(doctorId, page, size));
     }
 
-} 
\ No newline at end of file
+    /**
+     * The ETag changes whenever the document is updated, so clients revalidate with
+     * If-None-Match and get a 304 without the body.
+     */
+    private static ResponseEntity<?> cacheable(Prescription prescription) {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .eTag(PrescriptionService.etag(prescription))
+            .body(prescription);
+    }
+}
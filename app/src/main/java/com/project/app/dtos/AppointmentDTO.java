@@ -1,9 +1,11 @@
 package com.project.app.dtos;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.project.app.config.JacksonConfig;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.project.app.models.AppointmentStatus;
 
 public class AppointmentDTO {
     private Long id;
@@ -15,10 +17,12 @@ public class AppointmentDTO {
     private String patientPhone;
     private String patientAddress;
     
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    // java.time fields are written in the fixed formats from JacksonConfig
+    @JsonSerialize(using = JacksonConfig.SecondsLocalDateTimeSerializer.class)
     private LocalDateTime appointmentTime;
     
     private String status;
+
     private LocalDate appointmentDate;
     private LocalTime appointmentTimeOnly;
     private LocalDateTime endTime;
@@ -49,6 +53,16 @@ public class AppointmentDTO {
         this.endTime = appointmentTime.plusHours(1);
     }
 
+    // Used by JPQL constructor expressions, which select the status as the enum
+    public AppointmentDTO(Long id, Long doctorId, String doctorName,
+                         Long patientId, String patientName,
+                         String patientEmail, String patientPhone,
+                         String patientAddress, LocalDateTime appointmentTime,
+                         AppointmentStatus status) {
+        this(id, doctorId, doctorName, patientId, patientName, patientEmail, patientPhone,
+            patientAddress, appointmentTime, status != null ? status.name() : null);
+    }
+
     // Getters and setters
     public Long getId() {
         return id;
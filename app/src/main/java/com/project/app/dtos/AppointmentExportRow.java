@@ -0,0 +1,20 @@
+package com.project.app.dtos;
+
+import com.project.app.models.AppointmentStatus;
+import java.time.LocalDateTime;
+
+/**
+ * One line of the admin appointment export, read as a JPQL constructor projection so
+ * streamed rows never become managed entities.
+ */
+public record AppointmentExportRow(
+    Long id,
+    LocalDateTime appointmentTime,
+    AppointmentStatus status,
+    Long doctorId,
+    String doctorName,
+    Long patientId,
+    String patientName,
+    String patientEmail,
+    String patientPhone
+) {}
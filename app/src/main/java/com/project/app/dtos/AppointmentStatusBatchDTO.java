@@ -0,0 +1,20 @@
+package com.project.app.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentStatusBatchDTO {
+
+    @NotEmpty(message = "Appointment IDs cannot be empty")
+    private List<Long> appointmentIds;
+
+    @NotNull(message = "Status cannot be null")
+    private String status;
+}
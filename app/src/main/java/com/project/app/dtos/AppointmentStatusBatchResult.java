@@ -0,0 +1,7 @@
+package com.project.app.dtos;
+
+/**
+ * Outcome of a batch status update: how many appointments were updated (or queued), and
+ * whether the change is still queued behind the write-behind buffer.
+ */
+public record AppointmentStatusBatchResult(int count, boolean queued) {}
@@ -0,0 +1,16 @@
+package com.project.app.dtos;
+
+import com.project.app.models.AppointmentStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Appointment columns needed for a patient timeline entry, read with a JPQL
+ * constructor expression.
+ */
+public record AppointmentTimelineRow(
+    Long id,
+    LocalDateTime appointmentTime,
+    AppointmentStatus status,
+    Long doctorId,
+    String doctorName
+) {}
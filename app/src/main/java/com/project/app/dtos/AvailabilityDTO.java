@@ -0,0 +1,26 @@
+package com.project.app.dtos;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * A doctor's weekly hours as "HH:mm-HH:mm" ranges per weekday. Days missing from
+ * {@code weekly} are closed.
+ */
+@Data
+public class AvailabilityDTO {
+    private Long doctorId;
+    private Integer slotMinutes;
+    private String dayStart;
+    private Map<DayOfWeek, List<String>> weekly;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean defaultHours;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private List<AvailabilityOverrideDTO> overrides;
+}
@@ -0,0 +1,26 @@
+package com.project.app.dtos;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hours for one date replacing the weekly hours; an empty list closes the whole day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityOverrideDTO {
+    @NotNull(message = "Date cannot be null")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    private List<String> hours;
+
+    private String reason;
+}
@@ -0,0 +1,22 @@
+package com.project.app.dtos;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.project.app.config.JacksonConfig;
+import java.time.LocalDateTime;
+
+/**
+ * A free slot of one doctor. {@code date} and {@code time} are in the format the booking
+ * endpoint expects.
+ */
+public record AvailableSlotDTO(
+    Long doctorId,
+    String doctorName,
+    String specialty,
+    @JsonSerialize(using = JacksonConfig.SecondsLocalDateTimeSerializer.class) LocalDateTime start,
+    String date,
+    String time
+) {
+    public AvailableSlotDTO(Long doctorId, String doctorName, String specialty, LocalDateTime start) {
+        this(doctorId, doctorName, specialty, start, start.toLocalDate().toString(), start.toLocalTime().toString());
+    }
+}
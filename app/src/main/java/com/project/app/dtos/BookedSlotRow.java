@@ -0,0 +1,11 @@
+package com.project.app.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Start time of a non-cancelled appointment and its doctor.
+ */
+public record BookedSlotRow(
+    Long doctorId,
+    LocalDateTime appointmentTime
+) {}
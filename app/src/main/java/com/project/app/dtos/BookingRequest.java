@@ -0,0 +1,30 @@
+package com.project.app.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Body of POST /api/appointments/book. Jackson binds and type-checks every field up front,
+ * so a malformed id, ISO date or ISO time is a 400 before the service runs.
+ */
+public record BookingRequest(
+    @NotNull(message = "Doctor ID cannot be null")
+    @Positive(message = "Doctor ID must be positive")
+    Long doctorId,
+
+    @NotNull(message = "Patient ID cannot be null")
+    @Positive(message = "Patient ID must be positive")
+    Long patientId,
+
+    @NotNull(message = "Date cannot be null")
+    LocalDate date,
+
+    @NotNull(message = "Time cannot be null")
+    LocalTime time,
+
+    @Size(max = 500, message = "Reason must be less than 500 characters")
+    String reason
+) {}
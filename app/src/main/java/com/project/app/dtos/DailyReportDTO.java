@@ -0,0 +1,17 @@
+package com.project.app.dtos;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Per-doctor day sheets for one date. Reports for settled days (older than the grace period) are snapshots.
+ */
+public record DailyReportDTO(
+    LocalDate date,
+    boolean snapshot,
+    LocalDateTime generatedAt,
+    List<DoctorDaySheet> doctors
+) {
+    public record DoctorDaySheet(Long doctorId, String doctorName, List<DailyReportRow> appointments) {}
+}
@@ -0,0 +1,17 @@
+package com.project.app.dtos;
+
+import com.project.app.models.AppointmentStatus;
+import java.time.LocalDateTime;
+
+/**
+ * One appointment line of a doctor's day sheet.
+ */
+public record DailyReportRow(
+    Long doctorId,
+    String doctorName,
+    Long appointmentId,
+    LocalDateTime appointmentTime,
+    AppointmentStatus status,
+    String patientName,
+    String patientPhone
+) {}
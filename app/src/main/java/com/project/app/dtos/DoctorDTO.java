@@ -1,5 +1,6 @@
 package com.project.app.dtos;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -38,5 +39,7 @@ public class DoctorDTO {
     @Size(min = 6, message = "Password must be at least 6 characters long")
     private String password;
 
+    // Slot start times worked on at least one weekday, derived from the availability calendar
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private java.util.List<String> availableTimes;
 } 
\ No newline at end of file
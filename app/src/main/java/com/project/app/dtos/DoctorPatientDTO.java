@@ -0,0 +1,19 @@
+package com.project.app.dtos;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.project.app.config.JacksonConfig;
+import java.time.LocalDateTime;
+
+/**
+ * A patient of a doctor, with visit aggregates computed in the same query. lastVisit is
+ * null and visitCount 0 until the patient has had a visit that was not cancelled.
+ */
+public record DoctorPatientDTO(
+    Long id,
+    String name,
+    String email,
+    String phoneNumber,
+    String address,
+    @JsonSerialize(using = JacksonConfig.SecondsLocalDateTimeSerializer.class) LocalDateTime lastVisit,
+    Long visitCount
+) {}
@@ -0,0 +1,13 @@
+package com.project.app.dtos;
+
+import java.time.LocalDate;
+
+/**
+ * Date and doctor filters shared by the admin exports; null means no restriction.
+ * {@code to} is inclusive.
+ */
+public record ExportFilter(
+    LocalDate from,
+    LocalDate to,
+    Long doctorId
+) {}
@@ -0,0 +1,20 @@
+package com.project.app.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of the admin prescription export. Used as a Mongo projection, so audit fields
+ * are never read from the collection.
+ */
+public record PrescriptionExportRow(
+    String id,
+    Long patientId,
+    Long doctorId,
+    Long appointmentId,
+    String medication,
+    String dosage,
+    String duration,
+    String notes,
+    String status,
+    LocalDateTime prescribedAt
+) {}
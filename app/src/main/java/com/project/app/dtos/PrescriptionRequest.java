@@ -0,0 +1,35 @@
+package com.project.app.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Body of POST /api/prescriptions and POST /api/doctors/{email}/prescriptions. The
+ * prescribing doctor comes from the token or the path, never from the body. Limits match
+ * the Prescription document.
+ */
+public record PrescriptionRequest(
+    @NotNull(message = "Patient ID is missing from the request.")
+    @Positive(message = "Patient ID must be positive")
+    Long patientId,
+
+    @Positive(message = "Appointment ID must be positive")
+    Long appointmentId,
+
+    @NotBlank(message = "Medication cannot be blank")
+    @Size(min = 3, max = 500, message = "Medication must be between 3 and 500 characters")
+    String medication,
+
+    @NotBlank(message = "Dosage cannot be blank")
+    @Size(min = 3, max = 200, message = "Dosage must be between 3 and 200 characters")
+    String dosage,
+
+    @NotBlank(message = "Duration cannot be blank")
+    @Size(max = 100, message = "Duration must be less than 100 characters")
+    String duration,
+
+    @Size(max = 1000, message = "Notes must be less than 1000 characters")
+    String notes
+) {}
@@ -0,0 +1,19 @@
+package com.project.app.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lean prescription view for list screens. Used as a Mongo DTO projection, so only these
+ * fields are read from the collection (no notes or audit timestamps).
+ */
+public record PrescriptionSummaryDTO(
+    String id,
+    Long patientId,
+    Long doctorId,
+    Long appointmentId,
+    String medication,
+    String dosage,
+    String duration,
+    String status,
+    LocalDateTime prescribedAt
+) {}
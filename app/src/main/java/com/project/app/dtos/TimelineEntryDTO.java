@@ -0,0 +1,26 @@
+package com.project.app.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.project.app.config.JacksonConfig;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a patient's history: either an appointment or a prescription.
+ * Fields that do not apply to the entry type are left out of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TimelineEntryDTO(
+    Type type,
+    String id,
+    @JsonSerialize(using = JacksonConfig.SecondsLocalDateTimeSerializer.class) LocalDateTime time,
+    Long doctorId,
+    String doctorName,
+    String status,
+    String medication,
+    String dosage,
+    String duration
+) {
+    // Declaration order is the tie-break for entries at the same time
+    public enum Type { APPOINTMENT, PRESCRIPTION }
+}
@@ -0,0 +1,20 @@
+package com.project.app.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The request clashes with the current state, e.g. a duplicate email or an illegal status change.
+ */
+public class ConflictException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.CONFLICT;
+    }
+}
@@ -0,0 +1,21 @@
+package com.project.app.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Expected failure of a request (missing entity, not the caller's, state conflict, bad input),
+ * turned into a problem+json response by {@link ApiExceptionHandler}.
+ *
+ * These are control flow rather than bugs, so they are built without a stack trace or
+ * suppressed exceptions; throwing one costs about as much as allocating any small object.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+
+    public abstract HttpStatus getStatus();
+}
@@ -0,0 +1,20 @@
+package com.project.app.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The entity exists but does not belong to the authenticated caller.
+ */
+public class ForbiddenException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ForbiddenException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.FORBIDDEN;
+    }
+}
@@ -0,0 +1,20 @@
+package com.project.app.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The requested entity does not exist, or is not visible to the caller.
+ */
+public class NotFoundException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.NOT_FOUND;
+    }
+}
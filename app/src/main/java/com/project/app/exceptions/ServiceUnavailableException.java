@@ -0,0 +1,20 @@
+package com.project.app.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The request was refused because the server is temporarily overloaded; it may be retried.
+ */
+public class ServiceUnavailableException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.SERVICE_UNAVAILABLE;
+    }
+}
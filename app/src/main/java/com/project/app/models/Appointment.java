@@ -4,23 +4,48 @@ import java.beans.Transient;
 import java.sql.Date;
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedEntityGraphs;
+import jakarta.persistence.Table;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.project.app.exceptions.ConflictException;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.FetchType;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * Both associations are lazy. Repository methods pick a fetch plan explicitly:
+ * summary (appointment columns only), withPatient (admin listings that serialize the
+ * patient) and withDoctorAndPatient (single-appointment views mapped to AppointmentDTO).
+ */
 @Entity
-@AllArgsConstructor
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = "Appointment.summary"),
+    @NamedEntityGraph(name = "Appointment.withPatient",
+        attributeNodes = @NamedAttributeNode("patient")),
+    @NamedEntityGraph(name = "Appointment.withDoctorAndPatient",
+        attributeNodes = { @NamedAttributeNode("doctor"), @NamedAttributeNode("patient") })
+})
+@Table(indexes = {
+    @Index(name = "idx_appointment_time", columnList = "appointment_time"),
+    // Covers per-doctor availability and stats filters on status without touching the row
+    @Index(name = "idx_appointment_doctor_status_time", columnList = "doctor_id, status, appointment_time")
+})
 @NoArgsConstructor
 @Getter
 @Setter
@@ -36,15 +61,44 @@ public class Appointment {
     @JsonIgnore
     private Doctor doctor;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     @NotNull(message = "Patient cannot be null")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Patient patient;
 
     @Future(message = "Appointment date must be in the future")
     private LocalDateTime appointmentTime;
 
-    private String status;
+    // Only book() and changeStatus() set the status, so every change goes through the table
+    @Convert(converter = AppointmentStatusConverter.class)
+    @Column(nullable = false, columnDefinition = "TINYINT")
+    @Setter(AccessLevel.NONE)
+    private AppointmentStatus status;
+
+    /**
+     * A new appointment in the {@link AppointmentStatus#BOOKED} state.
+     */
+    public static Appointment book(Doctor doctor, Patient patient, LocalDateTime appointmentTime) {
+        Appointment appointment = new Appointment();
+        appointment.doctor = doctor;
+        appointment.patient = patient;
+        appointment.appointmentTime = appointmentTime;
+        appointment.changeStatus(AppointmentStatus.BOOKED);
+        return appointment;
+    }
+
+    /**
+     * Move to a new status, enforcing the {@link AppointmentStatus} transition table. A new
+     * appointment can only start as {@link AppointmentStatus#BOOKED}.
+     * @throws ConflictException if the transition is not allowed
+     */
+    public void changeStatus(AppointmentStatus next) {
+        if (status == null ? next != AppointmentStatus.BOOKED : !status.canTransitionTo(next)) {
+            throw new ConflictException("Cannot change appointment status from " + status + " to " + next);
+        }
+        this.status = next;
+    }
 
     @Transient
     public Long getDoctorId() {
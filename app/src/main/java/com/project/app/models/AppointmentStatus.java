@@ -0,0 +1,93 @@
+package com.project.app.models;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Appointment lifecycle. Each status is stored as a one-byte code (see
+ * {@link AppointmentStatusConverter}); codes are persisted, so never renumber them.
+ *
+ * The transition table below is the only place that decides which status changes are
+ * allowed. Setting the current status again is always allowed so retries are harmless.
+ */
+public enum AppointmentStatus {
+
+    BOOKED(0),
+    SCHEDULED(1),
+    CONFIRMED(2),
+    COMPLETED(3),
+    CANCELLED(4),
+    NO_SHOW(5);
+
+    private static final AppointmentStatus[] BY_CODE = new AppointmentStatus[values().length];
+
+    static {
+        for (AppointmentStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+
+        BOOKED.next = EnumSet.of(SCHEDULED, CONFIRMED, COMPLETED, CANCELLED, NO_SHOW);
+        SCHEDULED.next = EnumSet.of(CONFIRMED, COMPLETED, CANCELLED, NO_SHOW);
+        CONFIRMED.next = EnumSet.of(COMPLETED, CANCELLED, NO_SHOW);
+        COMPLETED.next = EnumSet.noneOf(AppointmentStatus.class);
+        CANCELLED.next = EnumSet.noneOf(AppointmentStatus.class);
+        NO_SHOW.next = EnumSet.noneOf(AppointmentStatus.class);
+
+        for (AppointmentStatus target : values()) {
+            Set<AppointmentStatus> sources = EnumSet.of(target);
+            for (AppointmentStatus source : values()) {
+                if (source.next.contains(target)) {
+                    sources.add(source);
+                }
+            }
+            target.sources = sources;
+        }
+    }
+
+    private final byte code;
+    private Set<AppointmentStatus> next;
+    private Set<AppointmentStatus> sources;
+
+    AppointmentStatus(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public boolean canTransitionTo(AppointmentStatus target) {
+        return target == this || next.contains(target);
+    }
+
+    /**
+     * Statuses from which this status may be reached, including itself. Used by bulk
+     * updates to leave rows in other states untouched.
+     */
+    public Set<AppointmentStatus> allowedSources() {
+        return EnumSet.copyOf(sources);
+    }
+
+    public boolean isTerminal() {
+        return next.isEmpty();
+    }
+
+    public static AppointmentStatus fromCode(byte code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown appointment status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Case-insensitive lookup by name.
+     * @throws IllegalArgumentException if the value is null or not a known status
+     */
+    public static AppointmentStatus parse(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Appointment status is required");
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
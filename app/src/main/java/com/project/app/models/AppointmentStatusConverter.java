@@ -0,0 +1,21 @@
+package com.project.app.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link AppointmentStatus} as its TINYINT code instead of the enum name.
+ */
+@Converter
+public class AppointmentStatusConverter implements AttributeConverter<AppointmentStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(AppointmentStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public AppointmentStatus convertToEntityAttribute(Byte code) {
+        return code != null ? AppointmentStatus.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,259 @@
+package com.project.app.models;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled, immutable availability of one doctor.
+ *
+ * A day is a grid of at most 64 slots of {@code slotMinutes} each, starting at
+ * {@code dayStartMinute}; bit i of a mask is the slot starting at
+ * dayStartMinute + i * slotMinutes. Weekly masks come from the doctor's
+ * {@link AvailabilityTemplate}, and an {@link AvailabilityOverride} replaces the weekly
+ * mask for its date. All lookups are array reads and bit operations.
+ */
+public final class AvailabilityCalendar {
+
+    public static final int MAX_SLOTS = Long.SIZE;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int slotMinutes;
+    private final int dayStartMinute;
+    private final int slotCount;
+    private final long[] weekly;
+    private final long weeklyUnion;
+    private final Map<LocalDate, Long> overrides;
+
+    /**
+     * @param weekly masks indexed by {@link DayOfWeek#ordinal()} (Monday first)
+     */
+    public AvailabilityCalendar(int slotMinutes, int dayStartMinute, long[] weekly, Map<LocalDate, Long> overrides) {
+        if (weekly.length != 7) {
+            throw new IllegalArgumentException("Expected 7 weekday masks");
+        }
+        this.slotMinutes = slotMinutes;
+        this.dayStartMinute = dayStartMinute;
+        this.slotCount = slotCount(slotMinutes, dayStartMinute);
+
+        long valid = validMask(slotCount);
+        this.weekly = new long[7];
+        long union = 0;
+        for (int i = 0; i < 7; i++) {
+            this.weekly[i] = weekly[i] & valid;
+            union |= this.weekly[i];
+        }
+        this.weeklyUnion = union;
+
+        Map<LocalDate, Long> masked = new HashMap<>();
+        overrides.forEach((date, mask) -> masked.put(date, mask & valid));
+        this.overrides = Map.copyOf(masked);
+    }
+
+    public static AvailabilityCalendar of(AvailabilityTemplate template, Collection<AvailabilityOverride> overrides) {
+        Map<LocalDate, Long> byDate = new HashMap<>();
+        for (AvailabilityOverride override : overrides) {
+            byDate.put(override.getOverrideDate(), override.getMask());
+        }
+        return new AvailabilityCalendar(template.getSlotMinutes(), template.getDayStartMinute(),
+            template.weeklyMasks(), byDate);
+    }
+
+    /**
+     * Same weekly hours with a different set of overrides.
+     */
+    public AvailabilityCalendar withOverrides(Collection<AvailabilityOverride> overrides) {
+        Map<LocalDate, Long> byDate = new HashMap<>();
+        for (AvailabilityOverride override : overrides) {
+            byDate.put(override.getOverrideDate(), override.getMask());
+        }
+        return new AvailabilityCalendar(slotMinutes, dayStartMinute, weekly, byDate);
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public int getDayStartMinute() {
+        return dayStartMinute;
+    }
+
+    public long weeklyMask(DayOfWeek day) {
+        return weekly[day.ordinal()];
+    }
+
+    /**
+     * Union of all weekday masks: the slots the doctor works on at least one day a week.
+     */
+    public long weeklyUnion() {
+        return weeklyUnion;
+    }
+
+    public Map<LocalDate, Long> getOverrides() {
+        return overrides;
+    }
+
+    /**
+     * Open slots on a date: the override for that date if there is one, else the weekday mask.
+     */
+    public long maskFor(LocalDate date) {
+        Long override = overrides.get(date);
+        return override != null ? override : weekly[date.getDayOfWeek().ordinal()];
+    }
+
+    /**
+     * @return the slot index starting exactly at {@code time}, or -1 if it is off the grid
+     */
+    public int slotIndex(LocalTime time) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            return -1;
+        }
+        int offset = time.getHour() * 60 + time.getMinute() - dayStartMinute;
+        if (offset < 0 || offset % slotMinutes != 0) {
+            return -1;
+        }
+        int index = offset / slotMinutes;
+        return index < slotCount ? index : -1;
+    }
+
+    public LocalTime slotStart(int index) {
+        return LocalTime.ofSecondOfDay((dayStartMinute + (long) index * slotMinutes) * 60);
+    }
+
+    public boolean isOpen(LocalDateTime time) {
+        int index = slotIndex(time.toLocalTime());
+        return index >= 0 && (maskFor(time.toLocalDate()) & (1L << index)) != 0;
+    }
+
+    /**
+     * Bits of the slots taken by the given appointment start times on {@code date}.
+     * Times on other dates or off the grid are ignored.
+     */
+    public long bookedMask(LocalDate date, Collection<LocalDateTime> times) {
+        long booked = 0;
+        for (LocalDateTime time : times) {
+            if (time.toLocalDate().equals(date)) {
+                int index = slotIndex(time.toLocalTime());
+                if (index >= 0) {
+                    booked |= 1L << index;
+                }
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * Slots whose start minute of day lies in [fromMinute, toMinute).
+     */
+    public long windowMask(int fromMinute, int toMinute) {
+        int first = Math.max(0, ceilDiv(fromMinute - dayStartMinute, slotMinutes));
+        int end = Math.min(slotCount, ceilDiv(toMinute - dayStartMinute, slotMinutes));
+        return rangeMask(first, end);
+    }
+
+    /**
+     * Start times of the set bits, in order.
+     */
+    public List<LocalTime> slots(long mask) {
+        List<LocalTime> result = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            result.add(slotStart(Long.numberOfTrailingZeros(mask)));
+            mask &= mask - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Contiguous runs of set bits as "HH:mm-HH:mm" ranges.
+     */
+    public List<String> ranges(long mask) {
+        List<String> result = new ArrayList<>();
+        while (mask != 0) {
+            int start = Long.numberOfTrailingZeros(mask);
+            int end = Long.numberOfTrailingZeros(~(mask >>> start)) + start;
+            result.add(formatMinute(dayStartMinute + start * slotMinutes) + "-"
+                + formatMinute(dayStartMinute + end * slotMinutes));
+            mask &= end >= MAX_SLOTS ? 0 : -1L << end;
+        }
+        return result;
+    }
+
+    /**
+     * Compile "HH:mm-HH:mm" ranges into a mask on the given grid. A range covers every slot
+     * whose start lies inside it.
+     * @throws IllegalArgumentException if a range is malformed or falls outside the grid
+     */
+    public static long maskOf(int slotMinutes, int dayStartMinute, Collection<String> ranges) {
+        int count = slotCount(slotMinutes, dayStartMinute);
+        long mask = 0;
+        for (String range : ranges) {
+            String[] parts = range.split("-", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid time range: " + range);
+            }
+            int from = parseMinute(parts[0]);
+            int to = parseMinute(parts[1]);
+            if (from >= to) {
+                throw new IllegalArgumentException("Invalid time range: " + range);
+            }
+            int first = ceilDiv(from - dayStartMinute, slotMinutes);
+            int end = ceilDiv(to - dayStartMinute, slotMinutes);
+            if (from < dayStartMinute || end > count) {
+                throw new IllegalArgumentException("Time range " + range + " is outside the slot grid ("
+                    + formatMinute(dayStartMinute) + ", " + count + " slots of " + slotMinutes + " minutes)");
+            }
+            mask |= rangeMask(first, end);
+        }
+        return mask;
+    }
+
+    public static int slotCount(int slotMinutes, int dayStartMinute) {
+        if (slotMinutes <= 0 || dayStartMinute < 0 || dayStartMinute >= MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Invalid slot grid");
+        }
+        return Math.min(MAX_SLOTS, (MINUTES_PER_DAY - dayStartMinute) / slotMinutes);
+    }
+
+    /**
+     * Parse "HH:mm" (or "24:00" for end of day) into a minute of day.
+     */
+    public static int parseMinute(String value) {
+        String text = value.trim();
+        if ("24:00".equals(text)) {
+            return MINUTES_PER_DAY;
+        }
+        try {
+            LocalTime time = LocalTime.parse(text);
+            return time.getHour() * 60 + time.getMinute();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid time: " + value);
+        }
+    }
+
+    public static String formatMinute(int minute) {
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+
+    private static long rangeMask(int first, int end) {
+        if (first >= end) {
+            return 0;
+        }
+        long upTo = end >= MAX_SLOTS ? -1L : (1L << end) - 1;
+        return upTo & (-1L << first);
+    }
+
+    private static long validMask(int slotCount) {
+        return slotCount >= MAX_SLOTS ? -1L : (1L << slotCount) - 1;
+    }
+
+    private static int ceilDiv(int x, int y) {
+        return -Math.floorDiv(-x, y);
+    }
+}
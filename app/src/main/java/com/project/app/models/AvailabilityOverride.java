@@ -0,0 +1,40 @@
+package com.project.app.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Replaces a doctor's weekly hours on one date (holiday, leave, extra clinic). The mask
+ * uses the same slot grid as the doctor's template; 0 means closed all day.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"doctor_id", "override_date"}))
+@NoArgsConstructor
+@Getter
+@Setter
+public class AvailabilityOverride {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "override_date", nullable = false)
+    private LocalDate overrideDate;
+
+    private long mask;
+
+    private String reason;
+}
@@ -0,0 +1,60 @@
+package com.project.app.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A doctor's weekly hours: one slot bitmask per weekday on a grid of slotMinutes
+ * starting at dayStartMinute (see {@link AvailabilityCalendar}). Doctors without a
+ * template use the configured default hours.
+ */
+@Entity
+@NoArgsConstructor
+@Getter
+@Setter
+public class AvailabilityTemplate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "doctor_id", nullable = false, unique = true)
+    private Long doctorId;
+
+    private int slotMinutes;
+
+    private int dayStartMinute;
+
+    private long mondayMask;
+    private long tuesdayMask;
+    private long wednesdayMask;
+    private long thursdayMask;
+    private long fridayMask;
+    private long saturdayMask;
+    private long sundayMask;
+
+    /**
+     * Weekday masks indexed by DayOfWeek ordinal (Monday first).
+     */
+    public long[] weeklyMasks() {
+        return new long[] {
+            mondayMask, tuesdayMask, wednesdayMask, thursdayMask, fridayMask, saturdayMask, sundayMask
+        };
+    }
+
+    public void setWeeklyMasks(long[] masks) {
+        mondayMask = masks[0];
+        tuesdayMask = masks[1];
+        wednesdayMask = masks[2];
+        thursdayMask = masks[3];
+        fridayMask = masks[4];
+        saturdayMask = masks[5];
+        sundayMask = masks[6];
+    }
+}
@@ -1,10 +1,7 @@
 package com.project.app.models;
 
-import java.util.List;
-
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
-import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
@@ -43,9 +40,6 @@ public class Doctor {
     @Pattern(regexp = "^\\d{10}$", message = "Phone number must be 10 digits")
     @Column(name = "phone_number")
     private String phoneNumber;
-    @ElementCollection
-    private List<String> availableTimes;
-    
     @Size(min = 5, max = 20, message = "License number must be between 5 and 20 characters")
     private String licenseNumber;
     
@@ -1,6 +1,8 @@
 package com.project.app.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -11,6 +13,10 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Document(collection = "prescriptions")
+@CompoundIndexes({
+    @CompoundIndex(name = "patient_prescribed_at", def = "{'patientId': 1, 'prescribedAt': -1}"),
+    @CompoundIndex(name = "doctor_prescribed_at", def = "{'doctorId': 1, 'prescribedAt': -1}")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
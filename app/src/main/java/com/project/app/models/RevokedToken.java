@@ -0,0 +1,40 @@
+package com.project.app.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A JWT revoked before its expiry, identified by its jti. Rows are the shared store every
+ * node polls into its in-memory denylist, and are deleted once the token would have
+ * expired anyway.
+ */
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_revoked_token_revoked_at", columnList = "revoked_at"),
+    @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
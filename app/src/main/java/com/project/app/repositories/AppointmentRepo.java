@@ -1,29 +1,67 @@
 package com.project.app.repositories;
 
+import com.project.app.dtos.AppointmentDTO;
+import com.project.app.dtos.AppointmentTimelineRow;
+import com.project.app.dtos.BookedSlotRow;
+import com.project.app.dtos.DailyReportRow;
+import com.project.app.dtos.DoctorPatientDTO;
 import com.project.app.models.Appointment;
+import com.project.app.models.AppointmentStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Repository
 public interface AppointmentRepo extends JpaRepository<Appointment, Long> {
-    // Basic CRUD operations
-    List<Appointment> findByPatient_Id(Long patientId);
-    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p WHERE a.doctor.id = :doctorId")
-    List<Appointment> findByDoctor_Id(@Param("doctorId") Long doctorId);
-    List<Appointment> findByStatus(String status);
+    // Select list for AppointmentDTO projections; queries append their own WHERE/ORDER BY
+    String APPOINTMENT_DTO_SELECT =
+        "SELECT new com.project.app.dtos.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, " +
+        "p.phoneNumber, p.address, a.appointmentTime, a.status) " +
+        "FROM Appointment a JOIN a.doctor d JOIN a.patient p ";
+
+    // Last visit and visit count of a patient group, counting only visits that took place
+    String LAST_VISIT =
+        "MAX(CASE WHEN a.status <> :cancelled AND a.appointmentTime <= :now THEN a.appointmentTime END)";
+    String VISIT_AGGREGATES = LAST_VISIT +
+        ", SUM(CASE WHEN a.status <> :cancelled AND a.appointmentTime <= :now THEN 1L ELSE 0L END)";
+
+    // Fetch plans for single appointments (graphs are declared on Appointment)
+    @EntityGraph("Appointment.summary")
+    Optional<Appointment> findSummaryById(Long id);
+
+    @EntityGraph("Appointment.withDoctorAndPatient")
+    Optional<Appointment> findWithDoctorAndPatientById(Long id);
+
+    // Admin listings serialize the patient, so load it in the same statement
+    @Override
+    @EntityGraph("Appointment.withPatient")
+    List<Appointment> findAll();
+
+    @EntityGraph("Appointment.withPatient")
+    List<Appointment> findByStatus(AppointmentStatus status);
     
+    @EntityGraph("Appointment.withPatient")
     @Query("SELECT a FROM Appointment a WHERE a.appointmentTime >= :start AND a.appointmentTime < :end")
     List<Appointment> findByDate(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
+    @EntityGraph("Appointment.withPatient")
     @Query("SELECT a FROM Appointment a WHERE a.status = :status AND a.appointmentTime >= :start AND a.appointmentTime < :end")
-    List<Appointment> findByStatusAndDate(@Param("status") String status, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    List<Appointment> findByStatusAndDate(@Param("status") AppointmentStatus status, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
     // Time-based queries
     List<Appointment> findByPatient_IdAndAppointmentTimeBefore(Long patientId, LocalDateTime time);
@@ -34,34 +72,199 @@ public interface AppointmentRepo extends JpaRepository<Appointment, Long> {
     List<Appointment> filterByDoctorNameAndPatientId(String name, Long patientId);
 
     @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END FROM Appointment a " +
-           "WHERE a.doctor.id = :doctorId AND a.appointmentTime = :appointmentTime")
+           "WHERE a.doctor.id = :doctorId AND a.appointmentTime = :appointmentTime AND a.status <> :cancelled")
     boolean isTimeSlotBooked(
         @Param("doctorId") Long doctorId,
-        @Param("appointmentTime") LocalDateTime appointmentTime
+        @Param("appointmentTime") LocalDateTime appointmentTime,
+        @Param("cancelled") AppointmentStatus cancelled
+    );
+
+    default boolean isTimeSlotBooked(Long doctorId, LocalDateTime appointmentTime) {
+        return isTimeSlotBooked(doctorId, appointmentTime, AppointmentStatus.CANCELLED);
+    }
+
+    /**
+     * Start times of a doctor's non-cancelled appointments in [start, end).
+     * Answered from idx_appointment_doctor_status_time alone.
+     */
+    @Query("SELECT a.appointmentTime FROM Appointment a WHERE a.doctor.id = :doctorId " +
+           "AND a.status <> :cancelled AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+    List<LocalDateTime> findBookedTimes(
+        @Param("doctorId") Long doctorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("cancelled") AppointmentStatus cancelled
+    );
+
+    default List<LocalDateTime> findBookedTimes(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return findBookedTimes(doctorId, start, end, AppointmentStatus.CANCELLED);
+    }
+
+    /**
+     * Non-cancelled appointment start times of several doctors in [start, end), in one query.
+     */
+    @Query("SELECT new com.project.app.dtos.BookedSlotRow(a.doctor.id, a.appointmentTime) FROM Appointment a " +
+           "WHERE a.doctor.id IN :doctorIds AND a.status <> :cancelled " +
+           "AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+    List<BookedSlotRow> findBookedSlots(
+        @Param("doctorIds") Collection<Long> doctorIds,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("cancelled") AppointmentStatus cancelled
     );
 
+    default List<BookedSlotRow> findBookedSlots(Collection<Long> doctorIds, LocalDateTime start, LocalDateTime end) {
+        return findBookedSlots(doctorIds, start, end, AppointmentStatus.CANCELLED);
+    }
+
     @Modifying
     @Transactional
     @Query("DELETE FROM Appointment a WHERE a.doctor.id = :doctorId")
     void deleteAllByDoctorId(Long doctorId);
 
-    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end")
-    List<Appointment> findByDoctorIdAndAppointmentTimeBetween(
+    /**
+     * Set the status of many appointments in a single UPDATE statement.
+     * Rows that do not belong to the given doctor, or whose current status is not in
+     * {@code allowedFrom}, are left untouched.
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.status = :status " +
+           "WHERE a.id IN :ids AND a.doctor.id = :doctorId AND a.status IN :allowedFrom")
+    int updateStatusForDoctor(
+        @Param("ids") Collection<Long> ids,
+        @Param("doctorId") Long doctorId,
+        @Param("status") AppointmentStatus status,
+        @Param("allowedFrom") Collection<AppointmentStatus> allowedFrom
+    );
+
+    default int updateStatusForDoctor(Collection<Long> ids, Long doctorId, AppointmentStatus status) {
+        return updateStatusForDoctor(ids, doctorId, status, status.allowedSources());
+    }
+
+    /**
+     * Lock the appointments an {@link #updateStatusForDoctor} call would change, so the set
+     * of matched rows cannot move before the UPDATE runs.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Appointment a WHERE a.id IN :ids AND a.doctor.id = :doctorId AND a.status IN :allowedFrom")
+    List<Appointment> lockForStatusChange(
+        @Param("ids") Collection<Long> ids,
+        @Param("doctorId") Long doctorId,
+        @Param("allowedFrom") Collection<AppointmentStatus> allowedFrom
+    );
+
+    /**
+     * Like {@link #updateStatusForDoctor(Collection, Long, AppointmentStatus)}, but reports
+     * which appointments were actually changed rather than how many, and when they are, so
+     * callers can drop what they cached for those days.
+     * @return appointment time of each appointment that now has the status, by id
+     */
+    @Transactional
+    default Map<Long, LocalDateTime> updateStatusForDoctorReturningTimes(
+            Collection<Long> ids, Long doctorId, AppointmentStatus status) {
+        Map<Long, LocalDateTime> matched = new LinkedHashMap<>();
+        for (Appointment appointment : lockForStatusChange(ids, doctorId, status.allowedSources())) {
+            matched.put(appointment.getId(), appointment.getAppointmentTime());
+        }
+        if (!matched.isEmpty()) {
+            updateStatusForDoctor(matched.keySet(), doctorId, status);
+        }
+        return matched;
+    }
+
+    // Read-only list projections: one statement, no managed entities
+    @Query(APPOINTMENT_DTO_SELECT + "WHERE p.id = :patientId ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDtosByPatientId(@Param("patientId") Long patientId);
+
+    @Query(APPOINTMENT_DTO_SELECT + "WHERE d.id = :doctorId ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDtosByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query(APPOINTMENT_DTO_SELECT + "WHERE d.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end " +
+           "ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDtosByDoctorIdAndTimeRange(
         @Param("doctorId") Long doctorId,
         @Param("start") LocalDateTime start,
         @Param("end") LocalDateTime end
     );
 
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.appointmentTime > :now")
-    List<Appointment> findByPatientIdAndAppointmentTimeAfter(
+    @Query(APPOINTMENT_DTO_SELECT + "WHERE p.id = :patientId AND a.appointmentTime > :now ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findUpcomingDtosByPatientId(
         @Param("patientId") Long patientId,
         @Param("now") LocalDateTime now
     );
 
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.appointmentTime BETWEEN :start AND :end")
-    List<Appointment> findByPatientIdAndAppointmentTimeBetween(
+    @Query(APPOINTMENT_DTO_SELECT + "WHERE p.id = :patientId AND a.appointmentTime >= :start AND a.appointmentTime < :end " +
+           "ORDER BY a.appointmentTime DESC")
+    List<AppointmentDTO> findHistoryDtosByPatientId(
         @Param("patientId") Long patientId,
         @Param("start") LocalDateTime start,
         @Param("end") LocalDateTime end
     );
+
+    /**
+     * Keyset page of a patient's appointments, newest first, strictly after the
+     * (before, beforeId) position in (appointmentTime DESC, id DESC) order.
+     */
+    @Query("SELECT new com.project.app.dtos.AppointmentTimelineRow(a.id, a.appointmentTime, a.status, d.id, d.name) " +
+           "FROM Appointment a JOIN a.doctor d WHERE a.patient.id = :patientId " +
+           "AND (a.appointmentTime < :before OR (a.appointmentTime = :before AND a.id < :beforeId)) " +
+           "ORDER BY a.appointmentTime DESC, a.id DESC")
+    List<AppointmentTimelineRow> findTimelinePage(
+        @Param("patientId") Long patientId,
+        @Param("before") LocalDateTime before,
+        @Param("beforeId") Long beforeId,
+        Pageable pageable
+    );
+
+    /**
+     * All appointments in [start, end) with doctor and patient columns, grouped by doctor.
+     * Filters on the raw appointment_time range so the index can be used.
+     */
+    @Query("SELECT new com.project.app.dtos.DailyReportRow(d.id, d.name, a.id, a.appointmentTime, a.status, p.name, p.phoneNumber) " +
+           "FROM Appointment a JOIN a.doctor d JOIN a.patient p " +
+           "WHERE a.appointmentTime >= :start AND a.appointmentTime < :end " +
+           "ORDER BY d.name, d.id, a.appointmentTime")
+    List<DailyReportRow> findDailyReportRows(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+
+    // Every patient of a doctor, one row per patient, with last visit and visit count.
+    // Only visits that happened count towards the aggregates, so a patient with only
+    // upcoming or cancelled appointments is listed with no last visit and a count of 0.
+    @Query(value = "SELECT new com.project.app.dtos.DoctorPatientDTO(p.id, p.name, p.email, p.phoneNumber, p.address, " +
+                   VISIT_AGGREGATES + ") " +
+                   "FROM Appointment a JOIN a.patient p WHERE a.doctor.id = :doctorId " +
+                   "GROUP BY p.id, p.name, p.email, p.phoneNumber, p.address " +
+                   "ORDER BY " + LAST_VISIT + " DESC NULLS LAST, p.id",
+           countQuery = "SELECT COUNT(DISTINCT a.patient.id) FROM Appointment a WHERE a.doctor.id = :doctorId")
+    Page<DoctorPatientDTO> findDoctorPatientsByLastVisit(
+        @Param("doctorId") Long doctorId,
+        @Param("cancelled") AppointmentStatus cancelled,
+        @Param("now") LocalDateTime now,
+        Pageable pageable
+    );
+
+    default Page<DoctorPatientDTO> findDoctorPatientsByLastVisit(Long doctorId, Pageable pageable) {
+        return findDoctorPatientsByLastVisit(doctorId, AppointmentStatus.CANCELLED, LocalDateTime.now(), pageable);
+    }
+
+    @Query(value = "SELECT new com.project.app.dtos.DoctorPatientDTO(p.id, p.name, p.email, p.phoneNumber, p.address, " +
+                   VISIT_AGGREGATES + ") " +
+                   "FROM Appointment a JOIN a.patient p WHERE a.doctor.id = :doctorId " +
+                   "GROUP BY p.id, p.name, p.email, p.phoneNumber, p.address " +
+                   "ORDER BY p.name, p.id",
+           countQuery = "SELECT COUNT(DISTINCT a.patient.id) FROM Appointment a WHERE a.doctor.id = :doctorId")
+    Page<DoctorPatientDTO> findDoctorPatientsByName(
+        @Param("doctorId") Long doctorId,
+        @Param("cancelled") AppointmentStatus cancelled,
+        @Param("now") LocalDateTime now,
+        Pageable pageable
+    );
+
+    default Page<DoctorPatientDTO> findDoctorPatientsByName(Long doctorId, Pageable pageable) {
+        return findDoctorPatientsByName(doctorId, AppointmentStatus.CANCELLED, LocalDateTime.now(), pageable);
+    }
 }
@@ -0,0 +1,29 @@
+package com.project.app.repositories;
+
+import com.project.app.models.AvailabilityOverride;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AvailabilityOverrideRepo extends JpaRepository<AvailabilityOverride, Long> {
+
+    List<AvailabilityOverride> findByDoctorId(Long doctorId);
+
+    List<AvailabilityOverride> findByDoctorIdIn(Collection<Long> doctorIds);
+
+    Optional<AvailabilityOverride> findByDoctorIdAndOverrideDate(Long doctorId, LocalDate overrideDate);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AvailabilityOverride o WHERE o.doctorId = :doctorId AND o.overrideDate = :date")
+    int deleteByDoctorIdAndDate(@Param("doctorId") Long doctorId, @Param("date") LocalDate date);
+}
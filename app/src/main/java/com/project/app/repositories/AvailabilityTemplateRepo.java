@@ -0,0 +1,17 @@
+package com.project.app.repositories;
+
+import com.project.app.models.AvailabilityTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AvailabilityTemplateRepo extends JpaRepository<AvailabilityTemplate, Long> {
+
+    Optional<AvailabilityTemplate> findByDoctorId(Long doctorId);
+
+    List<AvailabilityTemplate> findByDoctorIdIn(Collection<Long> doctorIds);
+}
@@ -1,10 +1,14 @@
 package com.project.app.repositories;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import com.project.app.models.AppointmentStatus;
 import com.project.app.models.Doctor;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +19,20 @@ public interface DoctorRepo extends JpaRepository<Doctor, Long> {
      * Find a doctor by email address
      */
     Optional<Doctor> findByEmail(String email);
+
+    /**
+     * Load a doctor and hold a write lock on its row until the transaction ends, so that
+     * bookings for the same doctor are checked and inserted one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Doctor d WHERE d.id = :id")
+    Optional<Doctor> lockForBooking(@Param("id") Long id);
+
+    /**
+     * Id of the doctor with this email, without loading the entity
+     */
+    @Query("SELECT d.id FROM Doctor d WHERE d.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
     
     /**
      * Find doctors by partial name match
@@ -52,9 +70,14 @@ public interface DoctorRepo extends JpaRepository<Doctor, Long> {
     @Query("SELECT d FROM Doctor d WHERE " +
            "LOWER(d.specialty) = LOWER(:specialty) AND " +
            "d.id NOT IN (SELECT a.doctor.id FROM Appointment a WHERE " +
-           "a.appointmentTime = :timeSlot AND a.status != 'CANCELLED')")
+           "a.appointmentTime = :timeSlot AND a.status <> :cancelled)")
     List<Doctor> findAvailableDoctorsBySpecialtyAndTime(
         @Param("specialty") String specialty,
-        @Param("timeSlot") String timeSlot
+        @Param("timeSlot") LocalDateTime timeSlot,
+        @Param("cancelled") AppointmentStatus cancelled
     );
+
+    default List<Doctor> findAvailableDoctorsBySpecialtyAndTime(String specialty, LocalDateTime timeSlot) {
+        return findAvailableDoctorsBySpecialtyAndTime(specialty, timeSlot, AppointmentStatus.CANCELLED);
+    }
 }
@@ -1,6 +1,8 @@
 package com.project.app.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.project.app.models.Patient;
 import java.util.Optional;
@@ -14,6 +16,14 @@ public interface PatientRepo extends JpaRepository<Patient, Long> {
      * @return Optional containing the patient if found
      */
     Optional<Patient> findByEmail(String email);
+
+    /**
+     * Id of the patient with this email, without loading the entity
+     * @param email the email to search for
+     * @return Optional containing the patient id if found
+     */
+    @Query("SELECT p.id FROM Patient p WHERE p.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
     
     /**
      * Find a patient by either email or phone number
@@ -1,7 +1,11 @@
 package com.project.app.repositories;
 
+import com.project.app.dtos.PrescriptionSummaryDTO;
 import com.project.app.models.Prescription;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.ReadPreference;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -15,4 +19,14 @@ public interface PrescriptionRepo extends MongoRepository<Prescription, String>
     List<Prescription> findByDoctorIdAndPatientId(Long doctorId, Long patientId);
     List<Prescription> findByAppointmentId(Long appointmentId);
     Optional<Prescription> findFirstByAppointmentId(Long appointmentId);
+
+    // Summary projections for list views, newest first. Slices skip the count query.
+    Slice<PrescriptionSummaryDTO> findSummariesByPatientIdOrderByPrescribedAtDesc(Long patientId, Pageable pageable);
+    Slice<PrescriptionSummaryDTO> findSummariesByDoctorIdOrderByPrescribedAtDesc(Long doctorId, Pageable pageable);
+
+    // Same queries, allowed to read from a secondary
+    @ReadPreference("secondaryPreferred")
+    Slice<PrescriptionSummaryDTO> findSecondarySummariesByPatientIdOrderByPrescribedAtDesc(Long patientId, Pageable pageable);
+    @ReadPreference("secondaryPreferred")
+    Slice<PrescriptionSummaryDTO> findSecondarySummariesByDoctorIdOrderByPrescribedAtDesc(Long doctorId, Pageable pageable);
 }
@@ -0,0 +1,38 @@
+package com.project.app.repositories;
+
+import com.project.app.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepo extends JpaRepository<RevokedToken, String> {
+
+    List<RevokedToken> findByRevokedAtGreaterThanEqualAndExpiresAtAfter(LocalDateTime revokedSince, LocalDateTime now);
+
+    /**
+     * Insert a revocation without merging. The primary key on jti decides between concurrent
+     * revocations of one token: exactly one inserts the row, the others fail with a
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO revoked_token (jti, expires_at, revoked_at) " +
+                   "VALUES (:jti, :expiresAt, :revokedAt)", nativeQuery = true)
+    int insert(
+        @Param("jti") String jti,
+        @Param("expiresAt") LocalDateTime expiresAt,
+        @Param("revokedAt") LocalDateTime revokedAt
+    );
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
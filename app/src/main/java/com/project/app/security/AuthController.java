@@ -2,7 +2,11 @@ package com.project.app.security;
 
 import com.project.app.security.dto.JwtResponse;
 import com.project.app.security.dto.LoginRequest;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -37,6 +41,12 @@ public class AuthController {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
@@ -87,6 +97,11 @@ public class AuthController {
             try {
                 authentication = authenticationManager.authenticate(authenticationToken);
                 logger.info("Authentication successful for user: {}", username);
+            } catch (PasswordHashingBusyException e) {
+                logger.warn("Password hashing busy, rejecting login for user: {}", username);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body(Map.of("error", e.getMessage()));
             } catch (Exception e) {
                 logger.error("Authentication failed for user: {}", username, e);
                 String errorMessage = "Authentication failed: " + e.getMessage();
@@ -142,6 +157,8 @@ public class AuthController {
             // Create response
             Map<String, Object> response = new HashMap<>();
             response.put("token", jwt);
+            response.put("refreshToken", tokenProvider.generateRefreshToken(authentication.getName()));
+            response.put("expiresIn", tokenProvider.getAccessExpirationMs() / 1000);
             response.put("username", authentication.getName());
             response.put("roles", roles);
             
@@ -186,4 +203,52 @@ public class AuthController {
                 ));
         }
     }
+
+    /**
+     * Exchange a refresh token for a new token pair. The user is loaded again here, so a
+     * deleted account or changed role takes effect at the next refresh. The presented
+     * refresh token is used up by a conditional revocation keyed on its jti, so it can be
+     * exchanged only once even when two requests race; the loser gets 401.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@RequestBody Map<String, String> request) {
+        String refreshToken = request != null ? request.get("refreshToken") : null;
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Refresh token is required"));
+        }
+
+        Claims claims;
+        try {
+            claims = tokenProvider.getClaimsFromToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("error", "Invalid or expired refresh token"));
+        }
+        if (!JwtTokenProvider.isRefreshToken(claims) || tokenRevocationService.isRevoked(claims.getId())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("error", "Invalid or expired refresh token"));
+        }
+
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("error", "User no longer exists"));
+        }
+        if (!tokenRevocationService.consume(claims)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("error", "Invalid or expired refresh token"));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", tokenProvider.generateAccessToken(user));
+        response.put("refreshToken", tokenProvider.generateRefreshToken(user.getUsername()));
+        response.put("expiresIn", tokenProvider.getAccessExpirationMs() / 1000);
+        response.put("username", user.getUsername());
+        response.put("roles", user.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .collect(Collectors.toList()));
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,23 @@
+package com.project.app.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a controller parameter to the authenticated user: either the {@link UserDetailsImpl}
+ * itself or, on a {@code Long} parameter, the id of its admin, doctor or patient row.
+ * Resolved by {@link CurrentUserArgumentResolver}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+
+    /**
+     * Whether an unauthenticated request is rejected (401) rather than bound to null.
+     */
+    boolean required() default true;
+}
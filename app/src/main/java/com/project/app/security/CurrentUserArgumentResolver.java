@@ -0,0 +1,38 @@
+package com.project.app.security;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} parameters from the security context. The principal built by
+ * {@link JwtAuthenticationFilter} already carries the user's id, so no repository is queried.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        if (!parameter.hasParameterAnnotation(CurrentUser.class)) {
+            return false;
+        }
+        Class<?> type = parameter.getParameterType();
+        return type == UserDetailsImpl.class || type == Long.class;
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        UserDetailsImpl user = UserDetailsImpl.current().orElse(null);
+        if (user == null) {
+            if (parameter.getParameterAnnotation(CurrentUser.class).required()) {
+                // Translated to 401 by the security filter chain
+                throw new AuthenticationCredentialsNotFoundException("Authentication required");
+            }
+            return null;
+        }
+        return parameter.getParameterType() == Long.class ? user.getId() : user;
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -26,7 +27,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     @Autowired
@@ -39,7 +40,7 @@ public class CustomUserDetailsService implements UserDetailsService {
     private PatientRepo patientRepository;
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         logger.info("=== CUSTOM USER DETAILS SERVICE ===");
         logger.info("Attempting to load user by username/email: {}", username);
@@ -87,10 +88,13 @@ public class CustomUserDetailsService implements UserDetailsService {
                 logger.debug("Creating UserDetails for admin: {}", admin.getUsername());
                     
                 try {
-                    UserDetails userDetails = new User(
+                    UserDetails userDetails = new UserDetailsImpl(
                         admin.getUsername(), 
+                        null,
                         admin.getPassword(), 
-                        authorities);
+                        authorities,
+                        admin.getId(),
+                        "ADMIN");
                     logger.debug("Successfully created UserDetails for admin: {}", admin.getUsername());
                     return userDetails;
                 } catch (Exception e) {
@@ -117,10 +121,13 @@ public class CustomUserDetailsService implements UserDetailsService {
                 logger.debug("Creating UserDetails for doctor: {}", doctor.getEmail());
                 
                 try {
-                    UserDetails userDetails = new User(
+                    UserDetails userDetails = new UserDetailsImpl(
                         doctor.getEmail(), 
+                        doctor.getEmail(),
                         doctor.getPassword(), 
-                        authorities);
+                        authorities,
+                        doctor.getId(),
+                        "DOCTOR");
                     logger.debug("Successfully created UserDetails for doctor: {}", doctor.getEmail());
                     return userDetails;
                 } catch (Exception e) {
@@ -148,10 +155,13 @@ public class CustomUserDetailsService implements UserDetailsService {
                 logger.debug("Creating UserDetails for patient: {}", patient.getEmail());
                 
                 try {
-                    UserDetails userDetails = new User(
+                    UserDetails userDetails = new UserDetailsImpl(
                         patient.getEmail(), 
+                        patient.getEmail(),
                         patient.getPassword(), 
-                        authorities);
+                        authorities,
+                        patient.getId(),
+                        "PATIENT");
                     logger.debug("Successfully created UserDetails for patient: {}", patient.getEmail());
                     return userDetails;
                 } catch (Exception e) {
@@ -190,6 +200,41 @@ public class CustomUserDetailsService implements UserDetailsService {
         }
     }
 
+    /**
+     * Store a rehashed password after a successful login with a legacy or outdated format.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        String username = user.getUsername();
+        String role = user.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .findFirst()
+            .orElse("");
+
+        switch (role) {
+            case "ROLE_ADMIN" -> adminRepository.findByUsername(username).ifPresent(admin -> {
+                admin.setPassword(newPassword);
+                adminRepository.save(admin);
+            });
+            case "ROLE_DOCTOR" -> doctorRepository.findByEmail(username).ifPresent(doctor -> {
+                doctor.setPassword(newPassword);
+                doctorRepository.save(doctor);
+            });
+            case "ROLE_PATIENT" -> patientRepository.findByEmail(username).ifPresent(patient -> {
+                patient.setPassword(newPassword);
+                patientRepository.save(patient);
+            });
+            default -> logger.warn("Cannot upgrade password for {} with role {}", username, role);
+        }
+        logger.info("Upgraded password hash for user: {}", username);
+        if (user instanceof UserDetailsImpl impl) {
+            return new UserDetailsImpl(impl.getUsername(), impl.getEmail(), newPassword,
+                impl.getAuthorities(), impl.getId(), impl.getRole());
+        }
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
     private UserDetails buildUserDetails(String username, String password, String role) {
         logger.debug("Building UserDetails for username: {}, role: {}", username, role);
         
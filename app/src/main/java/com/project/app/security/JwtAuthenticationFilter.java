@@ -30,6 +30,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -65,17 +68,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         boolean isValid = tokenProvider.validateToken(jwt);
                         logger.debug("JWT token validation result: {}", isValid);
                         
-                        if (isValid) {
+                        Claims claims = isValid ? tokenProvider.getClaimsFromToken(jwt) : null;
+                        if (claims != null && tokenRevocationService.isRevoked(claims.getId())) {
+                            logger.warn("Rejected revoked JWT token {}", claims.getId());
+                        } else if (claims != null && JwtTokenProvider.isRefreshToken(claims)) {
+                            logger.warn("Rejected refresh token presented as an access token");
+                        } else if (claims != null) {
                             logger.debug("JWT token validation succeeded");
-                            String username = tokenProvider.getUsernameFromJWT(jwt);
+                            String username = claims.getSubject();
                             logger.info("Extracted username from JWT: {}", username);
                             
-                            UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+                            // Access tokens carry the user's id and role; only older tokens need a lookup
+                            UserDetails userDetails = tokenProvider.getUserFromAccessToken(claims);
+                            if (userDetails == null) {
+                                userDetails = customUserDetailsService.loadUserByUsername(username);
+                            }
                             logger.debug("Loaded user details: {}", userDetails.getUsername());
                             logger.debug("User authorities: {}", userDetails.getAuthorities());
                             
                             // Get authorities from the token
-                            Claims claims = tokenProvider.getClaimsFromToken(jwt);
                             String authoritiesString = claims.get("auth", String.class);
                             logger.info("Authorities from token: {}", authoritiesString);
                             
@@ -9,11 +9,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
@@ -24,8 +28,15 @@ public class JwtTokenProvider {
     @Value("${APP_JWT_SECRET:your-secret-key-change-this-in-production}")
     private String jwtSecret;
 
-    @Value("${APP_JWT_EXPIRATION_MS:86400000}")
-    private int jwtExpirationMs;
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    // Access tokens are trusted without a user lookup, so they are kept short
+    @Value("${app.jwt.access-expiration-ms:900000}")
+    private long accessExpirationMs;
+
+    @Value("${app.jwt.refresh-expiration-ms:604800000}")
+    private long refreshExpirationMs;
 
     private boolean isBase64(String value) {
         try {
@@ -58,21 +69,81 @@ public class JwtTokenProvider {
     }
 
     public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        
-        String authorities = authentication.getAuthorities().stream()
+        return generateAccessToken((UserDetails) authentication.getPrincipal());
+    }
+
+    /**
+     * Short-lived token carrying the user's authorities and, for {@link UserDetailsImpl},
+     * its id ("uid") and role, so requests can be authorized from the token alone.
+     */
+    public String generateAccessToken(UserDetails user) {
+        String authorities = user.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
-        
+
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim("typ", TYPE_ACCESS)
+                .claim("auth", authorities);
+        if (user instanceof UserDetailsImpl impl && impl.getId() != null) {
+            builder.claim("uid", impl.getId())
+                   .claim("role", impl.getRole());
+        }
+        return builder
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + accessExpirationMs))
+                .signWith(getSigningKey(), Jwts.SIG.HS512)
+                .compact();
+    }
+
+    /**
+     * Long-lived token that can only be exchanged for a new token pair at /api/auth/refresh.
+     */
+    public String generateRefreshToken(String username) {
         return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .claim("auth", authorities)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(username)
+                .claim("typ", TYPE_REFRESH)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
+                .setExpiration(new Date(System.currentTimeMillis() + refreshExpirationMs))
                 .signWith(getSigningKey(), Jwts.SIG.HS512)
                 .compact();
     }
 
+    public long getAccessExpirationMs() {
+        return accessExpirationMs;
+    }
+
+    public static boolean isRefreshToken(Claims claims) {
+        return TYPE_REFRESH.equals(claims.get("typ", String.class));
+    }
+
+    /**
+     * The user described by an access token, or null if the token predates the uid/role
+     * claims and the user has to be loaded instead.
+     */
+    public UserDetailsImpl getUserFromAccessToken(Claims claims) {
+        if (!TYPE_ACCESS.equals(claims.get("typ", String.class))) {
+            return null;
+        }
+        Number id = claims.get("uid", Number.class);
+        String role = claims.get("role", String.class);
+        if (id == null || role == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        String auth = claims.get("auth", String.class);
+        if (auth != null && !auth.isEmpty()) {
+            for (String name : auth.split(",")) {
+                String trimmed = name.trim();
+                authorities.add(new SimpleGrantedAuthority(trimmed.startsWith("ROLE_") ? trimmed : "ROLE_" + trimmed));
+            }
+        }
+        String email = "ADMIN".equals(role) ? null : claims.getSubject();
+        return new UserDetailsImpl(claims.getSubject(), email, null, authorities, id.longValue(), role);
+    }
+
     public String getUsernameFromJWT(String token) {
         return getClaimsFromToken(token).getSubject();
     }
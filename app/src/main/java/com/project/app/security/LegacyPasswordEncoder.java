@@ -0,0 +1,49 @@
+package com.project.app.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Verifies stored passwords that predate the "{id}" prefix: bare BCrypt hashes (the seeded
+ * $2a$10 values) and plaintext passwords saved by the old registration code. It never
+ * encodes; everything it matches is reported as needing an upgrade, so the caller rehashes
+ * it with the current format after a successful login.
+ */
+class LegacyPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder bcrypt;
+
+    LegacyPasswordEncoder(PasswordEncoder bcrypt) {
+        this.bcrypt = bcrypt;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        throw new UnsupportedOperationException("Legacy password formats are verify-only");
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null || storedPassword.isEmpty()) {
+            return false;
+        }
+        if (isBcrypt(storedPassword)) {
+            return bcrypt.matches(rawPassword, storedPassword);
+        }
+        return MessageDigest.isEqual(
+            rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+            storedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String storedPassword) {
+        return true;
+    }
+
+    private static boolean isBcrypt(String value) {
+        return value.length() == 60
+            && (value.startsWith("$2a$") || value.startsWith("$2b$") || value.startsWith("$2y$"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.project.app.security;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Versioned password format: stored values are "{id}hash", where the id names the
+ * algorithm and the hash carries its own cost parameters. New passwords use
+ * {@code idForEncode}; values without a prefix are legacy (bare BCrypt or plaintext).
+ * A value in another format, or with lower cost parameters than configured, reports
+ * {@code upgradeEncoding} so it is rehashed on the next successful login.
+ */
+public final class PasswordEncoders {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private PasswordEncoders() {
+    }
+
+    public static PasswordEncoder delegating(String idForEncode, int bcryptStrength,
+                                             int argon2MemoryKib, int argon2Iterations, int argon2Parallelism) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(ARGON2, new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations));
+        if (!encoders.containsKey(idForEncode)) {
+            throw new IllegalArgumentException("Unknown password encoder: " + idForEncode);
+        }
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(idForEncode, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(new LegacyPasswordEncoder(bcrypt));
+        return delegating;
+    }
+}
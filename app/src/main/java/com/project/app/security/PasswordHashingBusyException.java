@@ -0,0 +1,14 @@
+package com.project.app.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * The password hashing executor is saturated; the login should be retried later rather
+ * than treated as bad credentials.
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
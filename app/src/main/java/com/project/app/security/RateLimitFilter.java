@@ -0,0 +1,211 @@
+package com.project.app.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-route request quotas, keyed by the JWT subject for authenticated calls and by client
+ * IP otherwise. Runs before {@link JwtAuthenticationFilter}, so a throttled request never
+ * reaches the user lookup or the controller.
+ *
+ * Each bucket is a single AtomicLong holding the GCRA "theoretical arrival time", updated
+ * with a CAS loop. A bucket whose arrival time has passed is indistinguishable from a new
+ * one, so idle keys can be dropped at any time; when the key map is full those are swept,
+ * and if it is still full new keys share one overflow bucket per route instead of growing
+ * the map.
+ *
+ * Rules are "[METHOD ]pattern=requests/seconds", comma separated, first match wins.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.rules:/api/**=600/60}")
+    private String rulesProperty;
+
+    @Value("${app.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private List<Rule> rules = List.of();
+
+    /**
+     * @param interval nanoseconds between requests at the sustained rate
+     * @param tolerance how far ahead of now the arrival time may run, i.e. the burst size
+     */
+    private record Rule(int index, String method, String pattern, long interval, long tolerance, AtomicLong overflow) {
+
+        boolean matches(AntPathMatcher matcher, String requestMethod, String path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && matcher.match(pattern, path);
+        }
+    }
+
+    @PostConstruct
+    void compileRules() {
+        List<Rule> compiled = new ArrayList<>();
+        for (String spec : StringUtils.commaDelimitedListToStringArray(rulesProperty)) {
+            if (StringUtils.hasText(spec)) {
+                compiled.add(parseRule(compiled.size(), spec.trim()));
+            }
+        }
+        rules = List.copyOf(compiled);
+        logger.info("Rate limiting {} with {} rule(s)", enabled ? "enabled" : "disabled", rules.size());
+    }
+
+    private static Rule parseRule(int index, String spec) {
+        int eq = spec.lastIndexOf('=');
+        int slash = spec.lastIndexOf('/');
+        if (eq < 0 || slash < eq) {
+            throw new IllegalArgumentException("Invalid rate limit rule: " + spec);
+        }
+        String target = spec.substring(0, eq).trim();
+        String method = null;
+        int space = target.indexOf(' ');
+        if (space > 0) {
+            method = target.substring(0, space);
+            target = target.substring(space + 1).trim();
+        }
+        long requests = Long.parseLong(spec.substring(eq + 1, slash).trim());
+        long seconds = Long.parseLong(spec.substring(slash + 1).trim());
+        if (requests <= 0 || seconds <= 0) {
+            throw new IllegalArgumentException("Invalid rate limit rule: " + spec);
+        }
+        long interval = TimeUnit.SECONDS.toNanos(seconds) / requests;
+        return new Rule(index, method, target, interval, interval * (requests - 1),
+            new AtomicLong(Long.MIN_VALUE));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getServletPath();
+        Rule rule = null;
+        for (Rule candidate : rules) {
+            if (candidate.matches(pathMatcher, request.getMethod(), path)) {
+                rule = candidate;
+                break;
+            }
+        }
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = acquire(rule, rule.index() + ":" + clientKey(request));
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            logger.debug("Rate limit exceeded for {} {}, retry after {}s", request.getMethod(), path, retryAfter);
+            response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write("{\"error\":\"Too many requests, retry after " + retryAfter + " seconds\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return 0 if the request is allowed, else nanoseconds until it would be
+     */
+    private long acquire(Rule rule, String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = newBucket(rule, key, now);
+        }
+        while (true) {
+            long tat = bucket.get();
+            long start = tat == Long.MIN_VALUE || tat - now < 0 ? now : tat;
+            long next = start + rule.interval();
+            long ahead = next - now - rule.interval();
+            if (ahead > rule.tolerance()) {
+                return ahead - rule.tolerance();
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong newBucket(Rule rule, String key, long now) {
+        if (buckets.size() >= maxKeys) {
+            sweep(now);
+            if (buckets.size() >= maxKeys) {
+                return rule.overflow();
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+    /**
+     * Drop buckets whose arrival time has passed; at most one sweep per interval.
+     */
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lastSweep.set(now);
+            buckets.values().removeIf(bucket -> {
+                long tat = bucket.get();
+                return tat == Long.MIN_VALUE || tat - now < 0;
+            });
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * The verified JWT subject if there is a valid bearer token, else the client address.
+     */
+    private String clientKey(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+            try {
+                String subject = tokenProvider.getUsernameFromJWT(header.substring(7));
+                if (StringUtils.hasText(subject)) {
+                    return "user:" + subject;
+                }
+            } catch (RuntimeException e) {
+                // Invalid or expired tokens are limited by address like anonymous calls
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -1,5 +1,7 @@
 package com.project.app.security;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,7 +11,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -40,7 +41,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider,
+                                           TokenRevocationService tokenRevocationService) throws Exception {
         // Configure exception handling first
         http.exceptionHandling(exception -> exception
             .authenticationEntryPoint(authEntryPoint)
@@ -127,6 +129,17 @@ public class SecurityConfig {
             // Configure logout
             .logout(logout -> logout
                 .logoutUrl("/api/auth/signout")
+                // Revoke the bearer token so it stops working before it expires
+                .addLogoutHandler((request, response, authentication) -> {
+                    String header = request.getHeader("Authorization");
+                    if (header != null && header.startsWith("Bearer ")) {
+                        tokenRevocationService.revoke(header.substring(7));
+                    }
+                    String refreshToken = request.getHeader("X-Refresh-Token");
+                    if (refreshToken != null && !refreshToken.isBlank()) {
+                        tokenRevocationService.revoke(refreshToken);
+                    }
+                })
                 .logoutSuccessHandler((request, response, authentication) -> {
                     response.setContentType("application/json;charset=UTF-8");
                     response.getWriter().write("{\"message\":\"Logout successful\"}");
@@ -134,18 +147,21 @@ public class SecurityConfig {
                 .permitAll()
             );
             
-        http.authenticationProvider(authenticationProvider());
+        http.authenticationProvider(authenticationProvider);
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(rateLimitFilter(), JwtAuthenticationFilter.class);
         
         return http.build();
     }
     
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         logger.info("Configuring DaoAuthenticationProvider");
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Rehash legacy and outdated password formats after a successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         
         // Enable debug logging for authentication
         authProvider.setHideUserNotFoundExceptions(false);
@@ -168,11 +184,33 @@ public class SecurityConfig {
     }
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        logger.info("Configuring BCryptPasswordEncoder");
-        PasswordEncoder encoder = new BCryptPasswordEncoder();
-        logger.info("BCryptPasswordEncoder configured");
-        return encoder;
+    public RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter();
+    }
+
+    // Only run the rate limiter inside the security chain, not a second time as a servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+    
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.encoder:bcrypt}") String idForEncode,
+            @Value("${app.security.password.bcrypt.strength:12}") int bcryptStrength,
+            @Value("${app.security.password.argon2.memory-kib:19456}") int argon2MemoryKib,
+            @Value("${app.security.password.argon2.iterations:2}") int argon2Iterations,
+            @Value("${app.security.password.argon2.parallelism:1}") int argon2Parallelism,
+            @Value("${app.security.password.hashing.threads:0}") int threads,
+            @Value("${app.security.password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.password.hashing.timeout-ms:5000}") long timeoutMs) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        logger.info("Configuring {} password encoder on {} hashing thread(s)", idForEncode, poolSize);
+        PasswordEncoder encoder = PasswordEncoders.delegating(idForEncode, bcryptStrength,
+            argon2MemoryKib, argon2Iterations, argon2Parallelism);
+        return new BoundedPasswordEncoder(encoder, poolSize, queueCapacity, timeoutMs);
     }
     
     @Bean
@@ -190,11 +228,18 @@ public class SecurityConfig {
             "Content-Type",
             "Accept",
             "X-Requested-With",
-            "Cache-Control"
+            "Cache-Control",
+            "Idempotency-Key",
+            "X-Refresh-Token",
+            "If-None-Match"
         ));
         configuration.setExposedHeaders(Arrays.asList(
             "Authorization",
-            "Content-Disposition"
+            "Content-Disposition",
+            "Idempotent-Replayed",
+            "Retry-After",
+            "ETag",
+            "Location"
         ));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
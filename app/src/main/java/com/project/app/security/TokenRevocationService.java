@@ -0,0 +1,191 @@
+package com.project.app.security;
+
+import com.project.app.models.RevokedToken;
+import com.project.app.repositories.RevokedTokenRepo;
+import com.project.app.utils.BloomFilter;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Denylist of revoked JWTs, keyed by jti.
+ *
+ * Each node keeps a Bloom filter in front of an exact jti -> expiry map, so the common case
+ * (token not revoked) is answered by a few bit reads without touching the map or the
+ * database. Revocations are written to the revoked_token table, which every node polls
+ * for new rows, so a logout on one node reaches the others within the poll interval.
+ * Entries are dropped once the token would have expired anyway, and the Bloom filter is
+ * rebuilt from the remaining entries on each sweep.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Autowired
+    private RevokedTokenRepo revokedTokenRepo;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Value("${app.jwt.revocation.expected-entries:100000}")
+    private long expectedEntries;
+
+    @Value("${app.jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${app.jwt.revocation.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    // Rows committed late or stamped by a node with a slow clock are still picked up
+    @Value("${app.jwt.revocation.poll-lookback-ms:30000}")
+    private long pollLookbackMs;
+
+    @Value("${app.jwt.revocation.sweep-interval-ms:600000}")
+    private long sweepIntervalMs;
+
+    private final Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime watermark = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        poll();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-revocation-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Token revocation enabled ({} KiB Bloom filter, poll every {}ms)",
+            filter.sizeInBytes() / 1024, pollIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Revoke a signed token until its expiry. Invalid, expired or jti-less tokens are ignored;
+     * revoking a token twice is harmless.
+     * @return true if the token is now revoked
+     */
+    public boolean revoke(String jwt) {
+        Claims claims;
+        try {
+            claims = tokenProvider.getClaimsFromToken(jwt);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return false;
+        }
+        insert(claims);
+        return true;
+    }
+
+    /**
+     * Use up a single-use token (a refresh token being exchanged) by revoking it. The check
+     * and the revocation are one conditional insert, so of two concurrent exchanges of the
+     * same token exactly one wins, on whichever node it runs.
+     * @return false if the token was already revoked, i.e. it is being reused
+     */
+    public boolean consume(Claims claims) {
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return false;
+        }
+        if (!insert(claims)) {
+            logger.warn("Reuse of revoked token {} for {}", claims.getId(), claims.getSubject());
+            return false;
+        }
+        return true;
+    }
+
+    // true if this call inserted the revocation, false if the jti was already revoked
+    private boolean insert(Claims claims) {
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+        boolean inserted;
+        try {
+            revokedTokenRepo.insert(claims.getId(), expiresAt, LocalDateTime.now());
+            inserted = true;
+        } catch (DataIntegrityViolationException e) {
+            inserted = false;
+        }
+        add(claims.getId(), expiresAt);
+        if (inserted) {
+            logger.info("Revoked token {} for {}", claims.getId(), claims.getSubject());
+        }
+        return inserted;
+    }
+
+    private void add(String jti, LocalDateTime expiresAt) {
+        // Map first: a concurrent sweep re-adds every mapped jti to the filter it swaps in
+        revoked.put(jti, expiresAt);
+        filter.add(jti);
+    }
+
+    private void poll() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<RevokedToken> rows = revokedTokenRepo.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(
+                watermark.minusNanos(pollLookbackMs * 1_000_000), now);
+            LocalDateTime latest = watermark;
+            for (RevokedToken row : rows) {
+                if (!revoked.containsKey(row.getJti())) {
+                    add(row.getJti(), row.getExpiresAt());
+                }
+                if (row.getRevokedAt().isAfter(latest)) {
+                    latest = row.getRevokedAt();
+                }
+            }
+            watermark = latest;
+        } catch (Exception e) {
+            logger.warn("Could not sync revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    private void sweep() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2L), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+            // Catch revocations that landed in the old filter while this one was being built
+            revoked.keySet().forEach(rebuilt::add);
+
+            revokedTokenRepo.deleteExpired(now);
+        } catch (Exception e) {
+            logger.warn("Could not sweep revoked tokens: {}", e.getMessage());
+        }
+    }
+}
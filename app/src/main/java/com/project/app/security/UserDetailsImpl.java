@@ -2,14 +2,21 @@ package com.project.app.security;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Authenticated user with the id of its admin, doctor or patient row and its role
+ * ("ADMIN", "DOCTOR" or "PATIENT"), so callers can use the id without looking the user up.
+ */
 public class UserDetailsImpl implements UserDetails {
     private static final long serialVersionUID = 1L;
 
@@ -18,13 +25,42 @@ public class UserDetailsImpl implements UserDetails {
     @JsonIgnore
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
+    private Long id;
+    private String role;
 
     public UserDetailsImpl(String username, String email, String password,
                          Collection<? extends GrantedAuthority> authorities) {
+        this(username, email, password, authorities, null, null);
+    }
+
+    public UserDetailsImpl(String username, String email, String password,
+                         Collection<? extends GrantedAuthority> authorities, Long id, String role) {
         this.username = username;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.id = id;
+        this.role = role;
+    }
+
+    /**
+     * The user authenticated on the current request, if it carries an id.
+     */
+    public static Optional<UserDetailsImpl> current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user && user.id != null) {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Id of the current user if it is the {@code role} user named {@code username}.
+     */
+    public static Optional<Long> currentId(String role, String username) {
+        return current()
+            .filter(user -> role.equals(user.role) && user.username.equalsIgnoreCase(username))
+            .map(UserDetailsImpl::getId);
     }
 
     public static UserDetailsImpl build(String username, String password, Collection<? extends GrantedAuthority> authorities) {
@@ -54,6 +90,14 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    public Long getId() {
+        return id;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
     @Override
     public boolean isAccountNonExpired() {
         return true;
@@ -83,4 +127,9 @@ public class UserDetailsImpl implements UserDetails {
         UserDetailsImpl user = (UserDetailsImpl) o;
         return Objects.equals(username, user.username);
     }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(username);
+    }
 }
@@ -2,8 +2,6 @@ package com.project.app.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,14 +14,13 @@ import com.project.app.repositories.PrescriptionRepo;
 import com.project.app.models.Doctor;
 import com.project.app.models.Patient;
 import com.project.app.models.Appointment;
+import com.project.app.models.AppointmentStatus;
 import com.project.app.models.Prescription;
-import com.project.app.models.Admin;
 import com.project.app.dtos.DoctorDTO;
-import com.project.app.utils.PasswordHasher;
-import com.project.app.security.JwtTokenProvider;
-import com.project.app.security.CustomUserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.core.userdetails.UserDetails;
+import com.project.app.exceptions.NotFoundException;
+import com.project.app.exceptions.ValidationException;
+import com.project.app.utils.SingleFlight;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -59,12 +56,10 @@ public class AppService {
     private PrescriptionRepo prescriptionRepo;   
 
     @Autowired
-    private JwtTokenProvider jwtTokenProvider;
+    private SingleFlight<String, Map<String, Object>> adminDoctorsFlight;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
-
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private PasswordEncoder passwordEncoder;
 
     
 
@@ -73,6 +68,13 @@ public class AppService {
     }
 
     public Map<String, Object> getDoctors(String specialty) {
+        boolean all = specialty == null || specialty.isEmpty() || "all".equalsIgnoreCase(specialty);
+        String key = all ? "*" : specialty.toLowerCase();
+        return adminDoctorsFlight.execute(key, () -> loadDoctors(specialty));
+    }
+
+    // Concurrent callers share the result, so it is returned immutable
+    private Map<String, Object> loadDoctors(String specialty) {
         Map<String, Object> response = new HashMap<>();
         try {
             System.out.println("=== AppService.getDoctors() called with specialty: " + specialty + " ===");
@@ -91,7 +93,7 @@ public class AppService {
             }
             
             response.put("success", true);
-            response.put("doctors", doctors);
+            response.put("doctors", List.copyOf(doctors));
             System.out.println("Response prepared successfully");
         } catch (Exception e) {
             System.err.println("Error fetching doctors: " + e.getMessage());
@@ -99,7 +101,7 @@ public class AppService {
             response.put("success", false);
             response.put("error", "Failed to fetch doctors: " + e.getMessage());
         }
-        return response;
+        return Map.copyOf(response);
     }
 
     public boolean validatePatient(Patient patient) {
@@ -114,10 +116,6 @@ public class AppService {
     }
     
 
-    public ResponseEntity<?> getPatientAppointments(String email) {
-            return patientService.getPatientAppointments(email);       
-    }
-
     public List<Doctor> getAllDoctors() {
         return doctorRepository.findAll();
     }
@@ -150,7 +148,7 @@ public class AppService {
     public Doctor updateDoctor(Long id, DoctorDTO doctorDTO) {
         Optional<Doctor> existingDoctor = doctorRepository.findById(id);
         if (existingDoctor.isEmpty()) {
-            throw new RuntimeException("Doctor not found");
+            throw new NotFoundException("Doctor not found");
         }
 
         Doctor doctor = existingDoctor.get();
@@ -169,7 +167,7 @@ public class AppService {
 
     public void deleteDoctor(Long id) {
         if (!doctorRepository.existsById(id)) {
-            throw new RuntimeException("Doctor not found");
+            throw new NotFoundException("Doctor not found");
         }
         doctorRepository.deleteById(id);
     }
@@ -178,101 +176,36 @@ public class AppService {
         return patientRepository.findAll();
     }
 
-    public List<Appointment> getAllAppointments(String status, String date) {
+    @Transactional(readOnly = true)
+    public List<Appointment> getAllAppointments(String statusName, LocalDate date) {
+        AppointmentStatus status;
+        try {
+            status = statusName != null ? AppointmentStatus.parse(statusName) : null;
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid appointment status: " + statusName);
+        }
         if (status != null && date != null) {
-            LocalDate parsedDate = LocalDate.parse(date);
-            LocalDateTime start = parsedDate.atStartOfDay();
-            LocalDateTime end = parsedDate.plusDays(1).atStartOfDay();
+            LocalDateTime start = date.atStartOfDay();
+            LocalDateTime end = date.plusDays(1).atStartOfDay();
             return appointmentRepo.findByStatusAndDate(status, start, end);
         } else if (status != null) {
             return appointmentRepo.findByStatus(status);
         } else if (date != null) {
-            LocalDate parsedDate = LocalDate.parse(date);
-            LocalDateTime start = parsedDate.atStartOfDay();
-            LocalDateTime end = parsedDate.plusDays(1).atStartOfDay();
+            LocalDateTime start = date.atStartOfDay();
+            LocalDateTime end = date.plusDays(1).atStartOfDay();
             return appointmentRepo.findByDate(start, end);
         }
         return appointmentRepo.findAll();
     }
 
-    public List<Prescription> getAllPrescriptions(String doctorId, String patientId) {
+    public List<Prescription> getAllPrescriptions(Long doctorId, Long patientId) {
         if (doctorId != null && patientId != null) {
-            return prescriptionRepo.findByDoctorIdAndPatientId(
-                Long.parseLong(doctorId), 
-                Long.parseLong(patientId)
-            );
+            return prescriptionRepo.findByDoctorIdAndPatientId(doctorId, patientId);
         } else if (doctorId != null) {
-            return prescriptionRepo.findByDoctorId(Long.parseLong(doctorId));
+            return prescriptionRepo.findByDoctorId(doctorId);
         } else if (patientId != null) {
-            return prescriptionRepo.findByPatientId(Long.parseLong(patientId));
+            return prescriptionRepo.findByPatientId(patientId);
         }
         return prescriptionRepo.findAll();
     }
-
-    public ResponseEntity<?> validateAdmin(Map<String, String> credentials) {
-        try {
-            String username = credentials.get("username");
-            System.out.println("Validating admin: " + username); // Debug log
-            
-            Optional<Admin> admin = adminRepository.findByUsername(username);
-            
-            if (admin.isEmpty()) {
-                System.out.println("Admin not found: " + username); // Debug log
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Invalid credentials"));
-            }
-
-            // Simple password check
-            if (!admin.get().getPassword().equals(credentials.get("password"))) {
-                System.out.println("Invalid password for admin: " + username); // Debug log
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Invalid credentials"));
-            }
-
-            System.out.println("Admin login successful: " + username); // Debug log
-            return ResponseEntity.ok(Map.of(
-                "message", "Login successful",
-                "role", "admin",
-                "username", admin.get().getUsername(),
-                "token", "dummy-token-" + System.currentTimeMillis() // Add a dummy token
-            ));
-
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Login failed: " + e.getMessage()));
-        }
-    }
-
-    /**
-     * Validate JWT token and check if it belongs to a doctor
-     * @param token The JWT token to validate
-     * @return true if token is valid and belongs to a doctor, false otherwise
-     */
-    public boolean validateToken(String token) {
-        try {
-            // Validate the JWT token
-            if (!jwtTokenProvider.validateToken(token)) {
-                return false;
-            }
-
-            // Get username from token
-            String username = jwtTokenProvider.getUsernameFromJWT(token);
-            if (username == null) {
-                return false;
-            }
-
-            // Load user details
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (userDetails == null) {
-                return false;
-            }
-
-            // Check if user has DOCTOR role
-            return userDetails.getAuthorities().stream()
-                .anyMatch(authority -> authority.getAuthority().equals("ROLE_DOCTOR"));
-
-        } catch (Exception e) {
-            return false;
-        }
-    }
 }
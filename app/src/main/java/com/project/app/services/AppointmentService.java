@@ -1,8 +1,8 @@
 package com.project.app.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import com.project.app.repositories.*;
 import com.project.app.models.*;
 import java.time.LocalDateTime;
@@ -11,15 +11,20 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.time.LocalDate;
-import java.time.LocalTime;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.Comparator;
-import java.util.ArrayList;
 import com.project.app.dtos.AppointmentDTO;
+import com.project.app.dtos.AvailableSlotDTO;
+import com.project.app.dtos.BookingRequest;
+import com.project.app.exceptions.ConflictException;
+import com.project.app.exceptions.NotFoundException;
+import com.project.app.exceptions.ValidationException;
+import com.project.app.security.UserDetailsImpl;
+import com.project.app.utils.SingleFlight;
 
 @Service
 public class AppointmentService {
+
+    private static final int MAX_NEXT_AVAILABLE = 50;
+    private static final int MAX_HORIZON_DAYS = 90;
     
     @Autowired
     private AppointmentRepo appointmentRepository;
@@ -30,237 +35,105 @@ public class AppointmentService {
     @Autowired
     private PatientRepo patientRepository;
 
-    public ResponseEntity<?> bookAppointment(Map<String, Object> bookingData) {
-        try {
-            Long doctorId = Long.parseLong(bookingData.get("doctorId").toString());
-            Long patientId = Long.parseLong(bookingData.get("patientId").toString());
-            String date = (String) bookingData.get("date");
-            String time = (String) bookingData.get("time");
-            String reason = (String) bookingData.get("reason");
-
-            Doctor doctor = doctorRepository.findById(doctorId)
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
-
-            Patient patient = patientRepository.findById(patientId)
-                .orElseThrow(() -> new RuntimeException("Patient not found"));
-
-            LocalDateTime appointmentTime = LocalDateTime.of(LocalDate.parse(date), LocalTime.parse(time));
-
-            Appointment appointment = new Appointment();
-            appointment.setDoctor(doctor);
-            appointment.setPatient(patient);
-            appointment.setAppointmentTime(appointmentTime);
-            appointment.setStatus("BOOKED");
-
-            Appointment saved = appointmentRepository.save(appointment);
+    @Autowired
+    private AvailabilityService availabilityService;
 
-            return ResponseEntity.ok(Map.of(
-                "message", "Appointment booked successfully",
-                "appointmentId", saved.getId()
-            ));
+    @Autowired
+    private DailyReportService dailyReportService;
 
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to book appointment: " + e.getMessage()
-            ));
+    @Autowired
+    private SingleFlight<String, List<String>> availableSlotsFlight;
+
+    /**
+     * Book an appointment from the booking form, already bound and validated by the controller.
+     * The doctor's row stays locked until the booking commits, so two requests for the same
+     * slot cannot both pass the check.
+     * @return the new appointment's id
+     * @throws ConflictException if the slot is already taken
+     */
+    @Transactional
+    public Long bookAppointment(BookingRequest booking) {
+        Doctor doctor = doctorRepository.lockForBooking(booking.doctorId())
+            .orElseThrow(() -> new NotFoundException("Doctor not found"));
+
+        Patient patient = patientRepository.findById(booking.patientId())
+            .orElseThrow(() -> new NotFoundException("Patient not found"));
+
+        LocalDateTime appointmentTime = LocalDateTime.of(booking.date(), booking.time());
+        if (!availabilityService.isBookable(doctor.getId(), appointmentTime)) {
+            throw new ValidationException("Selected time is outside the doctor's available hours");
         }
-    }
-
-    public ResponseEntity<?> bookAppointment(Appointment appointment) {
-        try {
-            // Validate doctor exists
-            if (!doctorRepository.existsById(appointment.getDoctor().getId())) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Doctor not found"
-                ));
-            }
-
-            // Check if time slot is available
-            if (appointmentRepository.isTimeSlotBooked(
-                appointment.getDoctor().getId(), 
-                appointment.getAppointmentTime()
-            )) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Time slot already booked"
-                ));
-            }
-
-            // Validate patient exists
-            if (!patientRepository.existsById(appointment.getPatient().getId())) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Patient not found"
-                ));
-            }
-            
-            // Save appointment
-            Appointment saved = appointmentRepository.save(appointment);
-            return ResponseEntity.ok(Map.of(
-                "message", "Appointment booked successfully",
-                "appointmentId", saved.getId()
-            ));
-
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to book appointment: " + e.getMessage()
-            ));
+        if (appointmentRepository.isTimeSlotBooked(doctor.getId(), appointmentTime)) {
+            throw new ConflictException("Time slot already booked");
         }
-    }
 
-    public ResponseEntity<?> updateAppointment(Long appointmentId, Appointment updatedAppointment) {
-        try {
-            // Find existing appointment
-            Optional<Appointment> existingAppointment = appointmentRepository.findById(appointmentId);
-            if (existingAppointment.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Appointment not found"
-                ));
-            }
-
-            // Check if new time slot is available
-            if (!existingAppointment.get().getAppointmentTime().equals(updatedAppointment.getAppointmentTime()) &&
-                appointmentRepository.isTimeSlotBooked(
-                    updatedAppointment.getDoctor().getId(), 
-                    updatedAppointment.getAppointmentTime()
-                )) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "New time slot is already booked"
-                ));
-            }
-
-            // Update appointment
-            Appointment appointment = existingAppointment.get();
-            appointment.setAppointmentTime(updatedAppointment.getAppointmentTime());
-            appointment.setStatus(updatedAppointment.getStatus());
-            
-            appointmentRepository.save(appointment);
-            
-            return ResponseEntity.ok(Map.of(
-                "message", "Appointment updated successfully"
-            ));
-
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to update appointment: " + e.getMessage()
-            ));
-        }
+        return appointmentRepository.save(Appointment.book(doctor, patient, appointmentTime)).getId();
     }
 
-    public ResponseEntity<?> cancelAppointment(Long appointmentId) {
-        try {
-            // Find appointment
-            Optional<Appointment> appointment = appointmentRepository.findById(appointmentId);
-            if (appointment.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Appointment not found"
-                ));
-            }
-
-            // Cancel appointment
-            appointment.get().setStatus("CANCELLED");
-            appointmentRepository.save(appointment.get());
+    @Transactional
+    public void cancelAppointment(Long appointmentId) {
+        Appointment appointment = appointmentRepository.findSummaryById(appointmentId)
+            .orElseThrow(() -> new NotFoundException("Appointment not found"));
 
-            return ResponseEntity.ok(Map.of(
-                "message", "Appointment cancelled successfully"
-            ));
-
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to cancel appointment: " + e.getMessage()
-            ));
-        }
+        appointment.changeStatus(AppointmentStatus.CANCELLED);
+        appointmentRepository.save(appointment);
+        dailyReportService.evictAfterCompletion(appointment.getAppointmentTime());
     }
 
-    public ResponseEntity<?> getUpcomingAppointments(Long patientId) {
-        try {
-            LocalDateTime now = LocalDateTime.now();
-            List<Appointment> appointments = appointmentRepository.findByPatientIdAndAppointmentTimeAfter(
-                patientId, now);
-
-            appointments.sort(Comparator.comparing(Appointment::getAppointmentTime));
-
-            return ResponseEntity.ok(Map.of("appointments", appointments));
-
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to fetch upcoming appointments: " + e.getMessage()
-            ));
-        }
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getUpcomingAppointments(Long patientId) {
+        return appointmentRepository.findUpcomingDtosByPatientId(patientId, LocalDateTime.now());
     }
 
-    public ResponseEntity<?> getAvailableSlots(Long doctorId, String date) {
-        try {
-            // Validate doctor exists
-            if (!doctorRepository.existsById(doctorId)) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Doctor not found"
-                ));
-            }
-
-            LocalDate appointmentDate = LocalDate.parse(date);
-            LocalDateTime startOfDay = appointmentDate.atStartOfDay();
-            LocalDateTime endOfDay = appointmentDate.plusDays(1).atStartOfDay();
-
-            // Get all appointments for the day
-            List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
-                doctorId, startOfDay, endOfDay);
-
-            // Generate available time slots (assuming 30-minute slots from 9 AM to 5 PM)
-            List<String> allSlots = generateTimeSlots();
-            Set<String> bookedSlots = appointments.stream()
-                .map(apt -> apt.getAppointmentTime().toLocalTime().toString())
-                .collect(Collectors.toSet());
-
-            // Filter out booked slots
-            List<String> availableSlots = allSlots.stream()
-                .filter(slot -> !bookedSlots.contains(slot))
-                .collect(Collectors.toList());
-
-            return ResponseEntity.ok(Map.of("availableSlots", availableSlots));
+    public List<String> getAvailableSlots(Long doctorId, LocalDate date) {
+        return availableSlotsFlight.execute(doctorId + "@" + date, () -> loadAvailableSlots(doctorId, date));
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to fetch available slots: " + e.getMessage()
-            ));
+    private List<String> loadAvailableSlots(Long doctorId, LocalDate date) {
+        // Validate doctor exists
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new NotFoundException("Doctor not found");
         }
+        return availabilityService.getFreeSlots(doctorId, date);
     }
 
-    public ResponseEntity<?> getAppointmentHistory(String email, String startDate, String endDate) {
-        try {
-            Patient patient = patientRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Patient not found"));
-
-            LocalDateTime start = startDate != null ? 
-                LocalDate.parse(startDate).atStartOfDay() : 
-                LocalDate.now().minusMonths(1).atStartOfDay();
-            
-            LocalDateTime end = endDate != null ? 
-                LocalDate.parse(endDate).plusDays(1).atStartOfDay() : 
-                LocalDateTime.now();
-
-            List<Appointment> appointments = appointmentRepository.findByPatientIdAndAppointmentTimeBetween(
-                patient.getId(), start, end);
-
-            // Sort by appointment time in descending order
-            appointments.sort(Comparator.comparing(Appointment::getAppointmentTime).reversed());
-
-            return ResponseEntity.ok(Map.of("appointments", appointments));
+    /**
+     * Earliest free slots across all doctors of a specialty within the next {@code days} days.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getNextAvailableSlots(String specialty, int count, int days) {
+        int limit = Math.min(Math.max(count, 1), MAX_NEXT_AVAILABLE);
+        int horizon = Math.min(Math.max(days, 1), MAX_HORIZON_DAYS);
+
+        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specialty);
+        List<AvailableSlotDTO> slots = availabilityService.findEarliestSlots(doctors, limit, horizon);
+
+        return Map.of(
+            "specialty", specialty,
+            "days", horizon,
+            "slots", slots
+        );
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to fetch appointment history: " + e.getMessage()
-            ));
-        }
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getAppointmentHistory(String email, LocalDate startDate, LocalDate endDate) {
+        Long patientId = UserDetailsImpl.currentId("PATIENT", email)
+            .orElseGet(() -> patientRepository.findIdByEmail(email)
+                .orElseThrow(() -> new NotFoundException("Patient not found")));
+        return getAppointmentHistory(patientId, startDate, endDate);
     }
 
-    private List<String> generateTimeSlots() {
-        List<String> slots = new ArrayList<>();
-        LocalTime start = LocalTime.of(9, 0); // 9 AM
-        LocalTime end = LocalTime.of(17, 0);  // 5 PM
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getAppointmentHistory(Long patientId, LocalDate startDate, LocalDate endDate) {
+        LocalDateTime start = startDate != null ? 
+            startDate.atStartOfDay() : 
+            LocalDate.now().minusMonths(1).atStartOfDay();
         
-        while (start.isBefore(end)) {
-            slots.add(start.toString());
-            start = start.plusMinutes(30);
-        }
-        return slots;
+        LocalDateTime end = endDate != null ? 
+            endDate.plusDays(1).atStartOfDay() : 
+            LocalDateTime.now();
+
+        // Already sorted newest first by the query
+        return appointmentRepository.findHistoryDtosByPatientId(patientId, start, end);
     }
 }
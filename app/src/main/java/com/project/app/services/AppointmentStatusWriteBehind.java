@@ -0,0 +1,204 @@
+package com.project.app.services;
+
+import com.project.app.models.AppointmentStatus;
+import com.project.app.repositories.AppointmentRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for appointment status changes.
+ *
+ * Status changes wait in a bounded buffer and are flushed in batches of one UPDATE per
+ * (doctor, status) group. Repeats of the same change are merged; changes of one appointment
+ * to different statuses stay separate entries and are applied in the order they arrived.
+ * The future returned by {@link #enqueue} completes only after the UPDATE carrying those
+ * changes has committed, with the number of appointments it actually changed: rows of other
+ * doctors, or whose status cannot move to the target, are not counted.
+ */
+@Component
+public class AppointmentStatusWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentStatusWriteBehind.class);
+
+    private final AppointmentRepo appointmentRepo;
+    private final DailyReportService dailyReportService;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    // Insertion-ordered so the oldest changes are flushed first; guarded by "this"
+    private final Map<Key, PendingUpdate> pending = new LinkedHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    private record Key(Long doctorId, Long appointmentId, AppointmentStatus status) {}
+
+    // Completed with whether the UPDATE changed the appointment
+    private static final class PendingUpdate {
+        private final CompletableFuture<Boolean> flushed = new CompletableFuture<>();
+    }
+
+    private record GroupKey(Long doctorId, AppointmentStatus status) {}
+
+    /**
+     * @param enabled whether status changes are buffered; when false the flusher is never started
+     * @param capacity most changes buffered before {@link #enqueue} rejects new ones
+     * @param batchSize most changes written per flush
+     * @param flushIntervalMs delay between scheduled flushes
+     */
+    public AppointmentStatusWriteBehind(AppointmentRepo appointmentRepo,
+                                        DailyReportService dailyReportService,
+                                        @Value("${app.appointments.status-write-behind.enabled:false}") boolean enabled,
+                                        @Value("${app.appointments.status-write-behind.capacity:10000}") int capacity,
+                                        @Value("${app.appointments.status-write-behind.batch-size:500}") int batchSize,
+                                        @Value("${app.appointments.status-write-behind.flush-interval-ms:200}") long flushIntervalMs) {
+        this.appointmentRepo = appointmentRepo;
+        this.dailyReportService = dailyReportService;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "appointment-status-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Appointment status write-behind enabled (capacity={}, batchSize={}, interval={}ms)",
+            capacity, batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a status change for the given appointments.
+     * @return a future completed with the number of appointments changed once every change
+     *         has been committed, or failed with {@link RejectedExecutionException} when the
+     *         buffer is full
+     */
+    public CompletableFuture<Integer> enqueue(Long doctorId, Collection<Long> appointmentIds, AppointmentStatus status) {
+        if (!enabled) {
+            throw new IllegalStateException("Appointment status write-behind is disabled");
+        }
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(appointmentIds.size());
+        boolean flushNow;
+        synchronized (this) {
+            int newKeys = 0;
+            for (Long appointmentId : appointmentIds) {
+                if (!pending.containsKey(new Key(doctorId, appointmentId, status))) {
+                    newKeys++;
+                }
+            }
+            if (pending.size() + newKeys > capacity) {
+                return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Status update queue is full"));
+            }
+            for (Long appointmentId : appointmentIds) {
+                // The same change already waiting is written once and answers both callers
+                PendingUpdate update = pending.computeIfAbsent(
+                    new Key(doctorId, appointmentId, status), key -> new PendingUpdate());
+                futures.add(update.flushed);
+            }
+            flushNow = pending.size() >= batchSize;
+        }
+        if (flushNow) {
+            flusher.execute(this::flushAll);
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenApply(done -> (int) futures.stream().filter(CompletableFuture::join).count());
+    }
+
+    private void flushAll() {
+        while (flushBatch()) {
+            // keep draining until the buffer is empty
+        }
+    }
+
+    /**
+     * Flush at most one batch. A batch holds each appointment at most once: a second change of
+     * the same appointment ends the batch, so the groups, which run in no particular order
+     * relative to each other, can never apply an appointment's changes out of order.
+     * @return true if a batch was written
+     */
+    boolean flushBatch() {
+        Map<GroupKey, Map<Long, CompletableFuture<Boolean>>> groups = new LinkedHashMap<>();
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return false;
+            }
+            Set<Long> inBatch = new HashSet<>();
+            Iterator<Map.Entry<Key, PendingUpdate>> it = pending.entrySet().iterator();
+            while (inBatch.size() < batchSize && it.hasNext()) {
+                Map.Entry<Key, PendingUpdate> entry = it.next();
+                Key key = entry.getKey();
+                if (!inBatch.add(key.appointmentId())) {
+                    break;
+                }
+                groups.computeIfAbsent(new GroupKey(key.doctorId(), key.status()), g -> new LinkedHashMap<>())
+                    .put(key.appointmentId(), entry.getValue().flushed);
+                it.remove();
+            }
+        }
+
+        for (Map.Entry<GroupKey, Map<Long, CompletableFuture<Boolean>>> group : groups.entrySet()) {
+            GroupKey key = group.getKey();
+            Map<Long, CompletableFuture<Boolean>> waiters = group.getValue();
+            try {
+                Map<Long, LocalDateTime> changed = appointmentRepo.updateStatusForDoctorReturningTimes(
+                    waiters.keySet(), key.doctorId(), key.status());
+                // Committed by now, so report snapshots of those days can be dropped at once
+                dailyReportService.evictAfterCompletion(changed.values());
+                logger.debug("Flushed {} status changes to {} for doctor {} ({} rows updated)",
+                    waiters.size(), key.status(), key.doctorId(), changed.size());
+                waiters.forEach((appointmentId, future) -> future.complete(changed.containsKey(appointmentId)));
+            } catch (Exception e) {
+                logger.error("Failed to flush status changes for doctor {}: {}", key.doctorId(), e.getMessage(), e);
+                waiters.values().forEach(f -> f.completeExceptionally(e));
+            }
+        }
+        return true;
+    }
+}
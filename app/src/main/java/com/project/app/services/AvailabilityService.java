@@ -0,0 +1,439 @@
+package com.project.app.services;
+
+import com.project.app.dtos.AvailabilityDTO;
+import com.project.app.dtos.AvailabilityOverrideDTO;
+import com.project.app.dtos.AvailableSlotDTO;
+import com.project.app.dtos.BookedSlotRow;
+import com.project.app.exceptions.NotFoundException;
+import com.project.app.exceptions.ValidationException;
+import com.project.app.models.AvailabilityCalendar;
+import com.project.app.models.AvailabilityOverride;
+import com.project.app.models.AvailabilityTemplate;
+import com.project.app.models.Doctor;
+import com.project.app.repositories.AppointmentRepo;
+import com.project.app.repositories.AvailabilityOverrideRepo;
+import com.project.app.repositories.AvailabilityTemplateRepo;
+import com.project.app.repositories.DoctorRepo;
+import com.project.app.utils.SortedMerge;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Doctor availability backed by weekly slot bitmasks and dated overrides.
+ *
+ * Each doctor's template and overrides are compiled into an {@link AvailabilityCalendar} and
+ * cached for a bounded time, which also caps how long another node's edit stays invisible
+ * here. Admin changes drop the cached calendar once their transaction has completed and bump
+ * the doctor's version; a calendar loaded before that bump is never cached, so a read that
+ * raced an update cannot put the old hours back.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final int NOON = 12 * 60;
+    private static final int END_OF_DAY = 24 * 60;
+    private static final int MIN_SLOT_MINUTES = 5;
+    private static final int MAX_SLOT_MINUTES = 240;
+    private static final Comparator<AvailableSlotDTO> SOONEST_FIRST =
+        Comparator.comparing(AvailableSlotDTO::start)
+            .thenComparing(AvailableSlotDTO::doctorName)
+            .thenComparing(AvailableSlotDTO::doctorId);
+    private static final DateTimeFormatter DISPLAY_TIME = DateTimeFormatter.ofPattern("hh:mm a", Locale.US);
+
+    private final AvailabilityTemplateRepo templateRepo;
+    private final AvailabilityOverrideRepo overrideRepo;
+    private final AppointmentRepo appointmentRepo;
+    private final DoctorRepo doctorRepo;
+    private final int defaultSlotMinutes;
+    private final long cacheTtlMs;
+
+    private final Map<Long, CachedCalendar> calendars = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation; a load only caches its result if the version is unchanged
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    private record CachedCalendar(AvailabilityCalendar calendar, long loadedAt) {}
+
+    private final AvailabilityCalendar defaultCalendar;
+
+    /**
+     * @param defaultSlotMinutes slot length for doctors without a template
+     * @param defaultHours working hours ("HH:mm-HH:mm") every weekday for doctors without a template
+     * @param cacheTtlMs how long a compiled calendar is served from the cache
+     */
+    public AvailabilityService(AvailabilityTemplateRepo templateRepo,
+                               AvailabilityOverrideRepo overrideRepo,
+                               AppointmentRepo appointmentRepo,
+                               DoctorRepo doctorRepo,
+                               @Value("${app.availability.default.slot-minutes:30}") int defaultSlotMinutes,
+                               @Value("${app.availability.default.hours:09:00-17:00}") String defaultHours,
+                               @Value("${app.availability.cache-ttl-ms:300000}") long cacheTtlMs) {
+        this.templateRepo = templateRepo;
+        this.overrideRepo = overrideRepo;
+        this.appointmentRepo = appointmentRepo;
+        this.doctorRepo = doctorRepo;
+        this.defaultSlotMinutes = defaultSlotMinutes;
+        this.cacheTtlMs = cacheTtlMs;
+
+        int dayStart = AvailabilityCalendar.parseMinute(defaultHours.split("-", 2)[0]);
+        long mask = AvailabilityCalendar.maskOf(defaultSlotMinutes, dayStart, List.of(defaultHours));
+        long[] weekly = new long[7];
+        Arrays.fill(weekly, mask);
+        this.defaultCalendar = new AvailabilityCalendar(defaultSlotMinutes, dayStart, weekly, Map.of());
+    }
+
+    public AvailabilityCalendar calendarFor(Long doctorId) {
+        AvailabilityCalendar cached = cached(doctorId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = versionOf(doctorId);
+        return cache(doctorId, version, load(doctorId));
+    }
+
+    /**
+     * Calendars for many doctors, loading the uncached ones with two queries in total.
+     */
+    public Map<Long, AvailabilityCalendar> calendarsFor(Collection<Long> doctorIds) {
+        Map<Long, AvailabilityCalendar> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long doctorId : doctorIds) {
+            AvailabilityCalendar calendar = cached(doctorId);
+            if (calendar != null) {
+                result.put(doctorId, calendar);
+            } else {
+                missing.add(doctorId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, Long> loadVersions = new HashMap<>();
+        missing.forEach(doctorId -> loadVersions.put(doctorId, versionOf(doctorId)));
+        Map<Long, AvailabilityTemplate> templates = templateRepo.findByDoctorIdIn(missing).stream()
+            .collect(Collectors.toMap(AvailabilityTemplate::getDoctorId, t -> t));
+        Map<Long, List<AvailabilityOverride>> overrides = overrideRepo.findByDoctorIdIn(missing).stream()
+            .collect(Collectors.groupingBy(AvailabilityOverride::getDoctorId));
+        for (Long doctorId : missing) {
+            AvailabilityCalendar calendar = compile(templates.get(doctorId),
+                overrides.getOrDefault(doctorId, List.of()));
+            result.put(doctorId, cache(doctorId, loadVersions.get(doctorId), calendar));
+        }
+        return result;
+    }
+
+    /**
+     * Free slot start times ("HH:mm") for a doctor on a date: open slots minus the start
+     * times of non-cancelled appointments.
+     */
+    public List<String> getFreeSlots(Long doctorId, LocalDate date) {
+        AvailabilityCalendar calendar = calendarFor(doctorId);
+        long open = calendar.maskFor(date);
+        if (open == 0) {
+            return List.of();
+        }
+        List<LocalDateTime> bookedTimes = appointmentRepo.findBookedTimes(
+            doctorId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        long free = open & ~calendar.bookedMask(date, bookedTimes);
+        return calendar.slots(free).stream()
+            .map(LocalTime::toString)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * The earliest {@code count} free slots across the given doctors from now until the end
+     * of the {@code days}-day horizon, soonest first.
+     *
+     * Calendars and the booked slots of every doctor are loaded up front (the booked slots
+     * with a single range query), then each doctor is scanned in parallel day by day and
+     * stops after its first {@code count} free slots, since no later slot of that doctor can
+     * make the result. The sorted per-doctor lists are combined with a k-way merge.
+     */
+    public List<AvailableSlotDTO> findEarliestSlots(List<Doctor> doctors, int count, int days) {
+        if (doctors.isEmpty() || count <= 0 || days <= 0) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        LocalDate lastDay = today.plusDays(days - 1L);
+
+        List<Long> doctorIds = doctors.stream().map(Doctor::getId).collect(Collectors.toList());
+        Map<Long, AvailabilityCalendar> doctorCalendars = calendarsFor(doctorIds);
+        Map<Long, Map<LocalDate, List<LocalDateTime>>> booked = appointmentRepo
+            .findBookedSlots(doctorIds, now, lastDay.plusDays(1).atStartOfDay()).stream()
+            .collect(Collectors.groupingBy(BookedSlotRow::doctorId,
+                Collectors.groupingBy(row -> row.appointmentTime().toLocalDate(),
+                    Collectors.mapping(BookedSlotRow::appointmentTime, Collectors.toList()))));
+        int nowMinute = now.getHour() * 60 + now.getMinute();
+
+        List<List<AvailableSlotDTO>> perDoctor = doctors.parallelStream()
+            .map(doctor -> scanDoctor(doctor, doctorCalendars.get(doctor.getId()),
+                booked.getOrDefault(doctor.getId(), Map.of()), today, lastDay, nowMinute, count))
+            .collect(Collectors.toList());
+        return SortedMerge.merge(perDoctor, SOONEST_FIRST, count);
+    }
+
+    private List<AvailableSlotDTO> scanDoctor(Doctor doctor, AvailabilityCalendar calendar,
+                                              Map<LocalDate, List<LocalDateTime>> bookedByDate,
+                                              LocalDate today, LocalDate lastDay, int nowMinute, int count) {
+        List<AvailableSlotDTO> found = new ArrayList<>(count);
+        for (LocalDate date = today; !date.isAfter(lastDay) && found.size() < count; date = date.plusDays(1)) {
+            long free = calendar.maskFor(date);
+            if (date.equals(today)) {
+                // Only slots that have not started yet
+                free &= calendar.windowMask(nowMinute + 1, END_OF_DAY);
+            }
+            List<LocalDateTime> taken = bookedByDate.get(date);
+            if (taken != null) {
+                free &= ~calendar.bookedMask(date, taken);
+            }
+            while (free != 0 && found.size() < count) {
+                int index = Long.numberOfTrailingZeros(free);
+                free &= free - 1;
+                found.add(new AvailableSlotDTO(doctor.getId(), doctor.getName(), doctor.getSpecialty(),
+                    date.atTime(calendar.slotStart(index))));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Whether the doctor's calendar has an open slot starting at {@code time}. Existing
+     * appointments are not considered; booking checks those under the doctor's lock.
+     */
+    public boolean isBookable(Long doctorId, LocalDateTime time) {
+        return calendarFor(doctorId).isOpen(time);
+    }
+
+    /**
+     * Whether the doctor works any slot matching the filter on some weekday.
+     * @param filter "AM", "PM" or an exact slot start "HH:mm"
+     * @throws ValidationException if the filter is not recognised
+     */
+    public boolean matchesTimeFilter(AvailabilityCalendar calendar, String filter) {
+        long window;
+        if ("AM".equalsIgnoreCase(filter)) {
+            window = calendar.windowMask(0, NOON);
+        } else if ("PM".equalsIgnoreCase(filter)) {
+            window = calendar.windowMask(NOON, END_OF_DAY);
+        } else {
+            int minute;
+            try {
+                minute = AvailabilityCalendar.parseMinute(filter);
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Invalid time filter: " + filter);
+            }
+            window = calendar.windowMask(minute, minute + 1);
+        }
+        return (calendar.weeklyUnion() & window) != 0;
+    }
+
+    /**
+     * Slot start times the doctor works on at least one weekday, formatted like "09:00 AM".
+     */
+    public List<String> displayTimes(AvailabilityCalendar calendar) {
+        return calendar.slots(calendar.weeklyUnion()).stream()
+            .map(DISPLAY_TIME::format)
+            .collect(Collectors.toList());
+    }
+
+    public AvailabilityDTO getAvailability(Long doctorId) {
+        requireDoctor(doctorId);
+        return toDTO(doctorId, calendarFor(doctorId), templateRepo.findByDoctorId(doctorId).isEmpty());
+    }
+
+    /**
+     * Replace a doctor's weekly hours. Existing overrides are carried over to the new slot
+     * grid; the update is rejected if one of them does not fit it.
+     */
+    @Transactional
+    public AvailabilityDTO updateTemplate(Long doctorId, AvailabilityDTO request) {
+        requireDoctor(doctorId);
+        int slotMinutes = request.getSlotMinutes() != null ? request.getSlotMinutes() : defaultSlotMinutes;
+        if (slotMinutes < MIN_SLOT_MINUTES || slotMinutes > MAX_SLOT_MINUTES) {
+            throw new ValidationException("Slot length must be between " + MIN_SLOT_MINUTES
+                + " and " + MAX_SLOT_MINUTES + " minutes");
+        }
+        int dayStart;
+        long[] weekly = new long[7];
+        try {
+            dayStart = request.getDayStart() != null
+                ? AvailabilityCalendar.parseMinute(request.getDayStart())
+                : defaultCalendar.getDayStartMinute();
+            AvailabilityCalendar.slotCount(slotMinutes, dayStart);
+
+            Map<DayOfWeek, List<String>> hours = request.getWeekly() != null ? request.getWeekly() : Map.of();
+            for (DayOfWeek day : DayOfWeek.values()) {
+                weekly[day.ordinal()] = AvailabilityCalendar.maskOf(slotMinutes, dayStart,
+                    hours.getOrDefault(day, List.of()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+
+        // Read inside the transaction: the cached calendar may predate another admin's change
+        AvailabilityCalendar current = load(doctorId);
+        List<AvailabilityOverride> overrides = overrideRepo.findByDoctorId(doctorId);
+        boolean regrid = current.getSlotMinutes() != slotMinutes || current.getDayStartMinute() != dayStart;
+        if (regrid) {
+            for (AvailabilityOverride override : overrides) {
+                try {
+                    override.setMask(AvailabilityCalendar.maskOf(slotMinutes, dayStart,
+                        current.ranges(override.getMask())));
+                } catch (IllegalArgumentException e) {
+                    throw new ValidationException("Override on " + override.getOverrideDate()
+                        + " does not fit the new slot grid: " + e.getMessage());
+                }
+            }
+        }
+
+        AvailabilityTemplate template = templateRepo.findByDoctorId(doctorId).orElseGet(AvailabilityTemplate::new);
+        template.setDoctorId(doctorId);
+        template.setSlotMinutes(slotMinutes);
+        template.setDayStartMinute(dayStart);
+        template.setWeeklyMasks(weekly);
+        templateRepo.save(template);
+        if (regrid) {
+            overrideRepo.saveAll(overrides);
+        }
+
+        invalidateAfterCompletion(doctorId);
+        return updatedAvailability(doctorId);
+    }
+
+    @Transactional
+    public AvailabilityDTO putOverride(Long doctorId, AvailabilityOverrideDTO request) {
+        requireDoctor(doctorId);
+        AvailabilityCalendar calendar = load(doctorId);
+        long mask;
+        try {
+            mask = AvailabilityCalendar.maskOf(calendar.getSlotMinutes(), calendar.getDayStartMinute(),
+                request.getHours() != null ? request.getHours() : List.of());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+
+        AvailabilityOverride override = overrideRepo.findByDoctorIdAndOverrideDate(doctorId, request.getDate())
+            .orElseGet(AvailabilityOverride::new);
+        override.setDoctorId(doctorId);
+        override.setOverrideDate(request.getDate());
+        override.setMask(mask);
+        override.setReason(request.getReason());
+        overrideRepo.save(override);
+
+        invalidateAfterCompletion(doctorId);
+        return updatedAvailability(doctorId);
+    }
+
+    @Transactional
+    public void deleteOverride(Long doctorId, LocalDate date) {
+        requireDoctor(doctorId);
+        if (overrideRepo.deleteByDoctorIdAndDate(doctorId, date) == 0) {
+            throw new NotFoundException("No availability override on " + date);
+        }
+        invalidateAfterCompletion(doctorId);
+    }
+
+    // Built from this transaction's rows and not cached: they are not committed yet
+    private AvailabilityDTO updatedAvailability(Long doctorId) {
+        return toDTO(doctorId, load(doctorId), templateRepo.findByDoctorId(doctorId).isEmpty());
+    }
+
+    private AvailabilityCalendar cached(Long doctorId) {
+        CachedCalendar entry = calendars.get(doctorId);
+        if (entry == null || System.currentTimeMillis() - entry.loadedAt() > cacheTtlMs) {
+            return null;
+        }
+        return entry.calendar();
+    }
+
+    /**
+     * Cache a calendar read while the doctor was at {@code version}. If an invalidation ran
+     * since, the rows may predate it, so the calendar is returned to the caller but not kept.
+     * The check runs under the map's lock for the doctor, which invalidate() also takes.
+     */
+    private AvailabilityCalendar cache(Long doctorId, long version, AvailabilityCalendar calendar) {
+        CachedCalendar entry = new CachedCalendar(calendar, System.currentTimeMillis());
+        calendars.compute(doctorId, (id, existing) -> versionOf(id) == version ? entry : existing);
+        return calendar;
+    }
+
+    private long versionOf(Long doctorId) {
+        return versions.getOrDefault(doctorId, 0L);
+    }
+
+    private void invalidate(Long doctorId) {
+        versions.merge(doctorId, 1L, Long::sum);
+        calendars.remove(doctorId);
+    }
+
+    /**
+     * Invalidate once the surrounding transaction has finished, so the next load reads
+     * committed rows. A reader that loaded before that point cannot cache what it read.
+     */
+    private void invalidateAfterCompletion(Long doctorId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(doctorId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(doctorId);
+            }
+        });
+    }
+
+    private AvailabilityCalendar load(Long doctorId) {
+        return compile(templateRepo.findByDoctorId(doctorId).orElse(null), overrideRepo.findByDoctorId(doctorId));
+    }
+
+    private AvailabilityCalendar compile(AvailabilityTemplate template, List<AvailabilityOverride> overrides) {
+        if (template == null) {
+            return overrides.isEmpty() ? defaultCalendar : defaultCalendar.withOverrides(overrides);
+        }
+        return AvailabilityCalendar.of(template, overrides);
+    }
+
+    private AvailabilityDTO toDTO(Long doctorId, AvailabilityCalendar calendar, boolean defaultHours) {
+        Map<DayOfWeek, List<String>> weekly = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            List<String> ranges = calendar.ranges(calendar.weeklyMask(day));
+            if (!ranges.isEmpty()) {
+                weekly.put(day, ranges);
+            }
+        }
+        List<AvailabilityOverrideDTO> overrides = overrideRepo.findByDoctorId(doctorId).stream()
+            .sorted(Comparator.comparing(AvailabilityOverride::getOverrideDate))
+            .map(o -> new AvailabilityOverrideDTO(o.getOverrideDate(), calendar.ranges(o.getMask()), o.getReason()))
+            .collect(Collectors.toList());
+
+        AvailabilityDTO dto = new AvailabilityDTO();
+        dto.setDoctorId(doctorId);
+        dto.setSlotMinutes(calendar.getSlotMinutes());
+        dto.setDayStart(AvailabilityCalendar.formatMinute(calendar.getDayStartMinute()));
+        dto.setWeekly(weekly);
+        dto.setDefaultHours(defaultHours);
+        dto.setOverrides(overrides);
+        return dto;
+    }
+
+    private void requireDoctor(Long doctorId) {
+        if (!doctorRepo.existsById(doctorId)) {
+            throw new NotFoundException("Doctor not found");
+        }
+    }
+}
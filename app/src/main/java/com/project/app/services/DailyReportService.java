@@ -0,0 +1,182 @@
+package com.project.app.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.app.dtos.DailyReportDTO;
+import com.project.app.dtos.DailyReportDTO.DoctorDaySheet;
+import com.project.app.dtos.DailyReportRow;
+import com.project.app.repositories.AppointmentRepo;
+import com.project.app.utils.CsvWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-doctor daily appointment sheets, replacing the GetDailyAppointmentReportByDoctor
+ * stored procedure.
+ *
+ * A day is read with one range query on appointment_time. Once a day is older than the
+ * grace period, during which statuses are still being filled in, its report is kept as a
+ * snapshot; more recent days are always generated fresh. Every status change, single or
+ * batched, drops the snapshots of the days it touched.
+ */
+@Service
+public class DailyReportService {
+
+    private final AppointmentRepo appointmentRepo;
+    private final ObjectMapper objectMapper;
+    private final int maxCachedDays;
+    private final int snapshotAfterDays;
+
+    private final Map<LocalDate, DailyReportDTO> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxCachedDays most snapshots kept at once
+     * @param snapshotAfterDays grace period after which a day's report is kept as a snapshot
+     */
+    public DailyReportService(AppointmentRepo appointmentRepo,
+                              ObjectMapper objectMapper,
+                              @Value("${app.reports.daily.max-cached-days:400}") int maxCachedDays,
+                              @Value("${app.reports.daily.snapshot-after-days:7}") int snapshotAfterDays) {
+        this.appointmentRepo = appointmentRepo;
+        this.objectMapper = objectMapper;
+        this.maxCachedDays = maxCachedDays;
+        this.snapshotAfterDays = snapshotAfterDays;
+    }
+
+    @Transactional(readOnly = true)
+    public DailyReportDTO getReport(LocalDate date, boolean refresh) {
+        boolean settled = date.isBefore(LocalDate.now().minusDays(snapshotAfterDays));
+        if (!settled) {
+            return generate(date, false);
+        }
+        if (!refresh) {
+            DailyReportDTO cached = snapshots.get(date);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        DailyReportDTO report = generate(date, true);
+        snapshots.put(date, report);
+        evictOldest();
+        return report;
+    }
+
+    /**
+     * Drop the snapshot of the day an appointment is on, once the surrounding transaction
+     * has completed, so the next read regenerates it from committed rows.
+     */
+    public void evictAfterCompletion(LocalDateTime appointmentTime) {
+        evictAfterCompletion(List.of(appointmentTime));
+    }
+
+    /**
+     * Same for the days of several appointments, such as those changed by a batch update.
+     */
+    public void evictAfterCompletion(Collection<LocalDateTime> appointmentTimes) {
+        Set<LocalDate> dates = new HashSet<>();
+        appointmentTimes.forEach(time -> dates.add(time.toLocalDate()));
+        if (dates.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            snapshots.keySet().removeAll(dates);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                snapshots.keySet().removeAll(dates);
+            }
+        });
+    }
+
+    /**
+     * Restrict a report to one doctor without touching the cached snapshot.
+     */
+    public DailyReportDTO forDoctor(DailyReportDTO report, Long doctorId) {
+        if (doctorId == null) {
+            return report;
+        }
+        List<DoctorDaySheet> sheets = report.doctors().stream()
+            .filter(sheet -> sheet.doctorId().equals(doctorId))
+            .toList();
+        return new DailyReportDTO(report.date(), report.snapshot(), report.generatedAt(), sheets);
+    }
+
+    public void writeCsv(DailyReportDTO report, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        csv.row("date", "doctor_id", "doctor_name", "appointment_id", "appointment_time",
+            "status", "patient_name", "patient_phone");
+        for (DoctorDaySheet sheet : report.doctors()) {
+            for (DailyReportRow row : sheet.appointments()) {
+                csv.row(report.date(), row.doctorId(), row.doctorName(), row.appointmentId(),
+                    row.appointmentTime(), row.status(), row.patientName(), row.patientPhone());
+            }
+        }
+        csv.flush();
+    }
+
+    public void writeJson(DailyReportDTO report, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            json.writeStartObject();
+            json.writeStringField("date", report.date().toString());
+            json.writeBooleanField("snapshot", report.snapshot());
+            json.writeStringField("generatedAt", report.generatedAt().toString());
+            json.writeArrayFieldStart("doctors");
+            for (DoctorDaySheet sheet : report.doctors()) {
+                json.writeStartObject();
+                json.writeNumberField("doctorId", sheet.doctorId());
+                json.writeStringField("doctorName", sheet.doctorName());
+                json.writeArrayFieldStart("appointments");
+                for (DailyReportRow row : sheet.appointments()) {
+                    json.writeObject(row);
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private DailyReportDTO generate(LocalDate date, boolean snapshot) {
+        List<DailyReportRow> rows = appointmentRepo.findDailyReportRows(
+            date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+
+        // Rows arrive ordered by doctor, so each sheet is a contiguous run
+        List<DoctorDaySheet> sheets = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i == rows.size() || !rows.get(i).doctorId().equals(rows.get(start).doctorId())) {
+                DailyReportRow first = rows.get(start);
+                sheets.add(new DoctorDaySheet(first.doctorId(), first.doctorName(),
+                    List.copyOf(rows.subList(start, i))));
+                start = i;
+            }
+        }
+        return new DailyReportDTO(date, snapshot, LocalDateTime.now(), Collections.unmodifiableList(sheets));
+    }
+
+    private void evictOldest() {
+        while (snapshots.size() > maxCachedDays) {
+            snapshots.keySet().stream().min(LocalDate::compareTo).ifPresent(snapshots::remove);
+        }
+    }
+}
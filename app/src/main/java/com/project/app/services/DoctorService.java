@@ -1,32 +1,49 @@
 package com.project.app.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import com.project.app.security.UserDetailsImpl;
 
 import com.project.app.models.Doctor;
 import com.project.app.models.Patient;
 import com.project.app.models.Appointment;
+import com.project.app.models.AppointmentStatus;
+import com.project.app.models.AvailabilityCalendar;
 import com.project.app.models.Prescription;
 import com.project.app.dtos.DoctorDTO;
+import com.project.app.dtos.DoctorPatientDTO;
 import com.project.app.dtos.AppointmentDTO;
+import com.project.app.dtos.AppointmentStatusBatchResult;
 
 import com.project.app.dtos.PrescriptionDTO;
+import com.project.app.dtos.PrescriptionRequest;
 import com.project.app.repositories.DoctorRepo;
 import com.project.app.repositories.PatientRepo;
 import com.project.app.repositories.AppointmentRepo;
 import com.project.app.repositories.PrescriptionRepo;
+import com.project.app.utils.SingleFlight;
+import com.project.app.exceptions.ConflictException;
+import com.project.app.exceptions.ForbiddenException;
+import com.project.app.exceptions.NotFoundException;
+import com.project.app.exceptions.ServiceUnavailableException;
+import com.project.app.exceptions.ValidationException;
 
 import java.time.LocalDateTime;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.project.app.dtos.PatientDTO;
 
 
 @Service
@@ -47,73 +64,67 @@ public class DoctorService {
     
     @Autowired
     private PrescriptionRepo prescriptionRepo;
+
+    @Autowired
+    private AppointmentStatusWriteBehind statusWriteBehind;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private DailyReportService dailyReportService;
+
+    @Autowired
+    private SingleFlight<String, List<DoctorDTO>> doctorListFlight;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${app.appointments.status-write-behind.ack-timeout-ms:2000}")
+    private long statusAckTimeoutMs;
+
+    private static final int MAX_PAGE_SIZE = 200;
     
 
     @Transactional
-    public ResponseEntity<?> registerDoctor(DoctorDTO doctorDTO) {
-        try {
-            if (doctorRepo.existsByEmail(doctorDTO.getEmail())) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body(Map.of("error", "Email already registered"));
-            }
-
-            Doctor doctor = new Doctor();
-            doctor.setName(doctorDTO.getName());
-            doctor.setEmail(doctorDTO.getEmail());
-            doctor.setPhoneNumber(doctorDTO.getPhoneNumber());
-            doctor.setSpecialty(doctorDTO.getSpecialty());
-            doctor.setLicenseNumber(doctorDTO.getLicenseNumber());
-            doctor.setPassword(doctorDTO.getPassword()); // Store password as-is
-            
-            doctor = doctorRepo.save(doctor);
-            
-            return ResponseEntity.status(HttpStatus.CREATED)
-                .body(Map.of(
-                    "message", "Doctor registered successfully",
-                    "doctor", convertToDTO(doctor)
-                ));
-        }    
-        catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Registration failed: " + e.getMessage()));
+    public DoctorDTO registerDoctor(DoctorDTO doctorDTO) {
+        if (doctorRepo.existsByEmail(doctorDTO.getEmail())) {
+            throw new ConflictException("Email already registered");
         }
-    }
 
-    public ResponseEntity<?> getDoctorProfile(String email) {
-        try {
-            Doctor doctor = doctorRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
+        Doctor doctor = new Doctor();
+        doctor.setName(doctorDTO.getName());
+        doctor.setEmail(doctorDTO.getEmail());
+        doctor.setPhoneNumber(doctorDTO.getPhoneNumber());
+        doctor.setSpecialty(doctorDTO.getSpecialty());
+        doctor.setLicenseNumber(doctorDTO.getLicenseNumber());
+        doctor.setPassword(passwordEncoder.encode(doctorDTO.getPassword()));
 
-            return ResponseEntity.ok(convertToDTO(doctor));
+        return convertToDTO(doctorRepo.save(doctor));
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch profile: " + e.getMessage()));
-        }
+    public DoctorDTO getDoctorProfile(String email) {
+        Doctor doctor = doctorRepo.findByEmail(email)
+            .orElseThrow(() -> new NotFoundException("Doctor not found"));
+        return convertToDTO(doctor);
     }
 
     @Transactional
-    public ResponseEntity<?> updateDoctorProfile(String email, DoctorDTO doctorDTO) {
-        try {
-            Doctor doctor = doctorRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
-
-            // Update only non-null fields
-            if (doctorDTO.getName() != null) doctor.setName(doctorDTO.getName());
-            if (doctorDTO.getPhoneNumber() != null) doctor.setPhoneNumber(doctorDTO.getPhoneNumber());
-            if (doctorDTO.getSpecialty() != null) doctor.setSpecialty(doctorDTO.getSpecialty());
-            if (doctorDTO.getLicenseNumber() != null) doctor.setLicenseNumber(doctorDTO.getLicenseNumber());
-            if (doctorDTO.getPassword() != null) {
-                doctor.setPassword(doctorDTO.getPassword()); // Store password as-is
-            }
-
-            doctorRepo.save(doctor);
-            return ResponseEntity.ok(convertToDTO(doctor));
-
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to update profile: " + e.getMessage()));
+    public DoctorDTO updateDoctorProfile(String email, DoctorDTO doctorDTO) {
+        Doctor doctor = doctorRepo.findByEmail(email)
+            .orElseThrow(() -> new NotFoundException("Doctor not found"));
+
+        // Update only non-null fields
+        if (doctorDTO.getName() != null) doctor.setName(doctorDTO.getName());
+        if (doctorDTO.getPhoneNumber() != null) doctor.setPhoneNumber(doctorDTO.getPhoneNumber());
+        if (doctorDTO.getSpecialty() != null) doctor.setSpecialty(doctorDTO.getSpecialty());
+        if (doctorDTO.getLicenseNumber() != null) doctor.setLicenseNumber(doctorDTO.getLicenseNumber());
+        if (doctorDTO.getPassword() != null) {
+            doctor.setPassword(passwordEncoder.encode(doctorDTO.getPassword()));
         }
+
+        doctorRepo.save(doctor);
+        return convertToDTO(doctor);
     }
 
     public List<Doctor> getAllDoctors() {
@@ -121,234 +132,209 @@ public class DoctorService {
     }
 
     public List<DoctorDTO> getAllDoctorsAsDTOs() {
-        return doctorRepo.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // Concurrent callers share one immutable list; they must not modify the DTOs in it
+        return doctorListFlight.execute("all", this::loadAllDoctorsAsDTOs);
     }
 
-    public ResponseEntity<?> getDoctorAppointments(String email) {
-        try {
-            Doctor doctor = doctorRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
-
-            List<Appointment> appointments = appointmentRepo.findByDoctor_Id(doctor.getId());
-            return ResponseEntity.ok(Map.of("appointments", appointments));
+    private List<DoctorDTO> loadAllDoctorsAsDTOs() {
+        List<Doctor> doctors = doctorRepo.findAll();
+        Map<Long, AvailabilityCalendar> calendars = availabilityService.calendarsFor(
+            doctors.stream().map(Doctor::getId).collect(Collectors.toList()));
+        return List.copyOf(doctors.stream()
+                .map(doctor -> convertToDTO(doctor, calendars.get(doctor.getId())))
+                .collect(Collectors.toList()));
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch appointments: " + e.getMessage()));
-        }
+    /**
+     * Keep doctors who work a slot matching the time filter ("AM", "PM" or "HH:mm") on
+     * some weekday.
+     */
+    public List<DoctorDTO> filterByAvailableTime(List<DoctorDTO> doctors, String time) {
+        Map<Long, AvailabilityCalendar> calendars = availabilityService.calendarsFor(
+            doctors.stream().map(DoctorDTO::getId).collect(Collectors.toList()));
+        return doctors.stream()
+                .filter(doctor -> availabilityService.matchesTimeFilter(calendars.get(doctor.getId()), time))
+                .collect(Collectors.toList());
     }
 
-    public ResponseEntity<?> getDoctorPrescriptions(String email) {
-        try {
-            Doctor doctor = doctorRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getDoctorAppointments(String email) {
+        return getDoctorAppointments(resolveDoctorId(email));
+    }
 
-            List<Prescription> prescriptions = prescriptionRepo.findByDoctorId(doctor.getId());
-            List<PrescriptionDTO> prescriptionDTOs = prescriptions.stream()
-                .map(this::convertToPrescriptionDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getDoctorAppointments(Long doctorId) {
+        return appointmentRepo.findDtosByDoctorId(doctorId);
+    }
 
-            return ResponseEntity.ok(Map.of("prescriptions", prescriptionDTOs));
+    public List<PrescriptionDTO> getDoctorPrescriptions(String email) {
+        return getDoctorPrescriptions(resolveDoctorId(email));
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch prescriptions: " + e.getMessage()));
-        }
+    public List<PrescriptionDTO> getDoctorPrescriptions(Long doctorId) {
+        return prescriptionRepo.findByDoctorId(doctorId).stream()
+            .map(this::convertToPrescriptionDTO)
+            .collect(Collectors.toList());
     }
 
     @Transactional
-    public ResponseEntity<?> createPrescription(String email, Map<String, Object> prescriptionData) {
+    public PrescriptionDTO createPrescription(String email, PrescriptionRequest request) {
         logger.info("Attempting to create prescription for doctor: {}", email);
-        logger.debug("Prescription data received: {}", prescriptionData);
-
-        try {
-            Doctor doctor = doctorRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Doctor not found with email: " + email));
-            logger.info("Found doctor: {}", doctor.getName());
+        logger.debug("Prescription data received: {}", request);
+
+        Doctor doctor = doctorRepo.findByEmail(email)
+            .orElseThrow(() -> new NotFoundException("Doctor not found with email: " + email));
+        logger.info("Found doctor: {}", doctor.getName());
+
+        Patient patient = patientRepo.findById(request.patientId())
+            .orElseThrow(() -> new NotFoundException("Patient not found with ID: " + request.patientId()));
+        logger.info("Found patient: {}", patient.getName());
+
+        Prescription prescription = new Prescription();
+        prescription.setDoctorId(doctor.getId());
+        prescription.setPatientId(patient.getId());
+        prescription.setAppointmentId(request.appointmentId());
+        prescription.setMedication(request.medication());
+        prescription.setDosage(request.dosage());
+        prescription.setDuration(request.duration());
+        prescription.setNotes(request.notes());
+        prescription.setPrescribedAt(LocalDateTime.now());
+        prescription.setStatus("ACTIVE");
+        logger.info("Prescription object created: {}", prescription);
+
+        Prescription savedPrescription = prescriptionRepo.save(prescription);
+        logger.info("Prescription saved successfully with ID: {}", savedPrescription.getId());
+
+        return convertToPrescriptionDTO(savedPrescription);
+    }
 
-            Object patientIdObj = prescriptionData.get("patientId");
-            if (patientIdObj == null) {
-                throw new RuntimeException("Patient ID is missing from the request.");
-            }
-            Long patientId = Long.valueOf(patientIdObj.toString());
-            Patient patient = patientRepo.findById(patientId)
-                .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + patientId));
-            logger.info("Found patient: {}", patient.getName());
-
-            Prescription prescription = new Prescription();
-            prescription.setDoctorId(doctor.getId());
-            prescription.setPatientId(patient.getId());
-            prescription.setMedication((String) prescriptionData.get("medication"));
-            prescription.setDosage((String) prescriptionData.get("dosage"));
-            prescription.setDuration((String) prescriptionData.get("duration"));
-            prescription.setNotes((String) prescriptionData.get("notes"));
-            prescription.setPrescribedAt(LocalDateTime.now());
-            prescription.setStatus("ACTIVE");
-            logger.info("Prescription object created: {}", prescription);
-
-            Prescription savedPrescription = prescriptionRepo.save(prescription);
-            logger.info("Prescription saved successfully with ID: {}", savedPrescription.getId());
-
-            return ResponseEntity.ok(convertToPrescriptionDTO(savedPrescription));
-
-        } catch (Exception e) {
-            logger.error("Error creating prescription for doctor {}: {}", email, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to create prescription: " + e.getMessage()));
+    public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
+        if (!doctorRepo.existsById(doctorId)) {
+            throw new NotFoundException("Doctor not found");
         }
+        return availabilityService.getFreeSlots(doctorId, date);
     }
 
-    public ResponseEntity<?> getDoctorAvailability(Long doctorId, String date) {
-        try {
-            Doctor doctor = doctorRepo.findById(doctorId)
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
-
-            LocalDate appointmentDate = LocalDate.parse(date);
-            LocalDateTime startOfDay = appointmentDate.atStartOfDay();
-            LocalDateTime endOfDay = appointmentDate.plusDays(1).atStartOfDay();
-
-            // Get all appointments for the day
-            List<Appointment> appointments = appointmentRepo.findByDoctorIdAndAppointmentTimeBetween(
-                doctorId, startOfDay, endOfDay);
-
-            // Generate available time slots (assuming 30-minute slots from 9 AM to 5 PM)
-            List<String> allSlots = generateTimeSlots();
-            Set<String> bookedSlots = appointments.stream()
-                .map(apt -> apt.getAppointmentTime().toLocalTime().toString())
-                .collect(Collectors.toSet());
-
-            // Filter out booked slots
-            List<String> availableSlots = allSlots.stream()
-                .filter(slot -> !bookedSlots.contains(slot))
-                .collect(Collectors.toList());
-
-            return ResponseEntity.ok(Map.of("availableSlots", availableSlots));
+    public AppointmentDTO getAppointmentDetails(String email, Long appointmentId) {
+        return getAppointmentDetails(resolveDoctorId(email), appointmentId);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch availability: " + e.getMessage()));
-        }
+    public AppointmentDTO getAppointmentDetails(Long doctorId, Long appointmentId) {
+        return convertToAppointmentDTO(findOwnAppointment(doctorId, appointmentId, "access"));
     }
 
-    public ResponseEntity<?> getAppointmentDetails(String email, Long appointmentId) {
-        try {
-            Doctor doctor = doctorRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
+    @Transactional
+    public AppointmentDTO updateAppointmentStatus(String email, Long appointmentId, String newStatus) {
+        return updateAppointmentStatus(resolveDoctorId(email), appointmentId, newStatus);
+    }
 
-            Appointment appointment = appointmentRepo.findById(appointmentId)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+    @Transactional
+    public AppointmentDTO updateAppointmentStatus(Long doctorId, Long appointmentId, String newStatus) {
+        Appointment appointment = findOwnAppointment(doctorId, appointmentId, "modify");
 
-            // Verify the appointment belongs to this doctor
-            if (!appointment.getDoctor().getId().equals(doctor.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(Map.of("error", "Unauthorized to access this appointment"));
-            }
+        appointment.changeStatus(parseStatus(newStatus));
+        appointmentRepo.save(appointment);
+        dailyReportService.evictAfterCompletion(appointment.getAppointmentTime());
+        return convertToAppointmentDTO(appointment);
+    }
 
-            return ResponseEntity.ok(convertToAppointmentDTO(appointment));
+    public AppointmentStatusBatchResult updateAppointmentStatuses(String email, List<Long> appointmentIds, String newStatus) {
+        return updateAppointmentStatuses(resolveDoctorId(email), appointmentIds, newStatus);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch appointment details: " + e.getMessage()));
+    /**
+     * Set one status on many of the doctor's appointments. Appointments belonging to other
+     * doctors are skipped by the UPDATE itself, so no per-row ownership lookup is needed.
+     * With write-behind enabled the change is queued and batched with other requests; the
+     * result carries the number of appointments changed once the batch has committed, or the
+     * number queued if it is still waiting after the acknowledgement timeout.
+     */
+    public AppointmentStatusBatchResult updateAppointmentStatuses(Long doctorId, List<Long> appointmentIds, String newStatus) {
+        AppointmentStatus status = parseStatus(newStatus);
+
+        // Rows whose current status cannot move to the target are skipped by the UPDATE
+        Set<Long> ids = new LinkedHashSet<>(appointmentIds);
+
+        if (!statusWriteBehind.isEnabled()) {
+            Map<Long, LocalDateTime> changed = appointmentRepo.updateStatusForDoctorReturningTimes(ids, doctorId, status);
+            dailyReportService.evictAfterCompletion(changed.values());
+            return new AppointmentStatusBatchResult(changed.size(), false);
         }
-    }
 
-    public ResponseEntity<?> updateAppointmentStatus(String email, Long appointmentId, String newStatus) {
         try {
-            Doctor doctor = doctorRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
-
-            Appointment appointment = appointmentRepo.findById(appointmentId)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
-
-            // Verify the appointment belongs to this doctor
-            if (!appointment.getDoctor().getId().equals(doctor.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(Map.of("error", "Unauthorized to modify this appointment"));
+            int updated = statusWriteBehind.enqueue(doctorId, ids, status)
+                .get(statusAckTimeoutMs, TimeUnit.MILLISECONDS);
+            return new AppointmentStatusBatchResult(updated, false);
+        } catch (TimeoutException e) {
+            return new AppointmentStatusBatchResult(ids.size(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while updating appointment statuses");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new ServiceUnavailableException(e.getCause().getMessage());
             }
+            throw new IllegalStateException("Failed to update appointment statuses", e.getCause());
+        }
+    }
 
-            // Validate status
-            if (!isValidStatus(newStatus)) {
-                return ResponseEntity.badRequest()
-                    .body(Map.of("error", "Invalid appointment status"));
-            }
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getDoctorSchedule(String email, LocalDate startDate, LocalDate endDate) {
+        return getDoctorSchedule(resolveDoctorId(email), startDate, endDate);
+    }
 
-            appointment.setStatus(newStatus);
-            appointmentRepo.save(appointment);
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getDoctorSchedule(Long doctorId, LocalDate startDate, LocalDate endDate) {
+        LocalDateTime start = startDate != null ? 
+            startDate.atStartOfDay() : 
+            LocalDate.now().atStartOfDay();
+        
+        LocalDateTime end = endDate != null ? 
+            endDate.plusDays(1).atStartOfDay() : 
+            LocalDate.now().plusDays(7).atStartOfDay();
 
-            return ResponseEntity.ok(Map.of(
-                "message", "Appointment status updated successfully",
-                "appointment", convertToAppointmentDTO(appointment)
-            ));
+        return appointmentRepo.findDtosByDoctorIdAndTimeRange(doctorId, start, end);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to update appointment status: " + e.getMessage()));
-        }
+    @Transactional(readOnly = true)
+    public Page<DoctorPatientDTO> getDoctorPatients(String email, int page, int size, String sort) {
+        return getDoctorPatients(resolveDoctorId(email), page, size, sort);
     }
 
-    public ResponseEntity<?> getDoctorSchedule(String email, String startDate, String endDate) {
-        try {
-            Doctor doctor = doctorRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
-
-            LocalDateTime start = startDate != null ? 
-                LocalDate.parse(startDate).atStartOfDay() : 
-                LocalDate.now().atStartOfDay();
-            
-            LocalDateTime end = endDate != null ? 
-                LocalDate.parse(endDate).plusDays(1).atStartOfDay() : 
-                LocalDate.now().plusDays(7).atStartOfDay();
-
-            List<Appointment> appointments = appointmentRepo.findByDoctorIdAndAppointmentTimeBetween(
-                doctor.getId(), start, end);
-
-            List<AppointmentDTO> appointmentDTOs = appointments.stream()
-                .map(this::convertToAppointmentDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<DoctorPatientDTO> getDoctorPatients(Long doctorId, int page, int size, String sort) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        return "name".equalsIgnoreCase(sort)
+            ? appointmentRepo.findDoctorPatientsByName(doctorId, pageable)
+            : appointmentRepo.findDoctorPatientsByLastVisit(doctorId, pageable);
+    }
 
-            return ResponseEntity.ok(Map.of("schedule", appointmentDTOs));
+    private Appointment findOwnAppointment(Long doctorId, Long appointmentId, String action) {
+        Appointment appointment = appointmentRepo.findWithDoctorAndPatientById(appointmentId)
+            .orElseThrow(() -> new NotFoundException("Appointment not found"));
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch schedule: " + e.getMessage()));
+        // Verify the appointment belongs to this doctor
+        if (!appointment.getDoctor().getId().equals(doctorId)) {
+            throw new ForbiddenException("Unauthorized to " + action + " this appointment");
         }
+        return appointment;
     }
 
-    public ResponseEntity<?> getDoctorPatients(String email) {
+    private static AppointmentStatus parseStatus(String status) {
         try {
-            Doctor doctor = doctorRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
-            List<Appointment> appointments = appointmentRepo.findByDoctor_Id(doctor.getId());
-            Set<Patient> patients = appointments.stream()
-                .map(Appointment::getPatient)
-                .collect(Collectors.toSet());
-            List<PatientDTO> patientDTOs = patients.stream()
-                .map(this::convertToPatientDTO)
-                .collect(Collectors.toList());
-            return ResponseEntity.ok(Map.of("patients", patientDTOs));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch patients: " + e.getMessage()));
+            return AppointmentStatus.parse(status);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid appointment status");
         }
     }
 
-    private List<String> generateTimeSlots() {
-        List<String> slots = new ArrayList<>();
-        LocalTime start = LocalTime.of(9, 0); // 9 AM
-        LocalTime end = LocalTime.of(17, 0);  // 5 PM
-        
-        while (start.isBefore(end)) {
-            slots.add(start.toString());
-            start = start.plusMinutes(30);
-        }
-        return slots;
-    }
-
-    private boolean isValidStatus(String status) {
-        return Arrays.asList("SCHEDULED", "CONFIRMED", "COMPLETED", "CANCELLED", "NO_SHOW")
-            .contains(status.toUpperCase());
+    /**
+     * The doctor's id from the access token when the caller is that doctor, else by email.
+     */
+    private Long resolveDoctorId(String email) {
+        return UserDetailsImpl.currentId("DOCTOR", email)
+            .orElseGet(() -> doctorRepo.findIdByEmail(email)
+                .orElseThrow(() -> new NotFoundException("Doctor not found")));
     }
 
     private AppointmentDTO convertToAppointmentDTO(Appointment appointment) {
@@ -369,6 +355,10 @@ public class DoctorService {
     }
 
     private DoctorDTO convertToDTO(Doctor doctor) {
+        return convertToDTO(doctor, availabilityService.calendarFor(doctor.getId()));
+    }
+
+    private DoctorDTO convertToDTO(Doctor doctor, AvailabilityCalendar calendar) {
         DoctorDTO dto = new DoctorDTO();
         dto.setId(doctor.getId());
         dto.setName(doctor.getName());
@@ -376,7 +366,7 @@ public class DoctorService {
         dto.setPhoneNumber(doctor.getPhoneNumber());
         dto.setSpecialty(doctor.getSpecialty());
         dto.setLicenseNumber(doctor.getLicenseNumber());
-        dto.setAvailableTimes(doctor.getAvailableTimes());
+        dto.setAvailableTimes(availabilityService.displayTimes(calendar));
         return dto;
     }
 
@@ -399,15 +389,4 @@ public class DoctorService {
         dto.setDoctorName(doctor != null ? doctor.getName() : "N/A");
         return dto;
     }
-
-    private PatientDTO convertToPatientDTO(Patient patient) {
-        return new PatientDTO(
-            patient.getId(),
-            patient.getName(),
-            patient.getEmail(),
-            patient.getPhoneNumber(),
-            patient.getAddress(),
-            null // Do not expose password
-        );
-    }
 }
@@ -0,0 +1,197 @@
+package com.project.app.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.app.dtos.AppointmentExportRow;
+import com.project.app.dtos.ExportFilter;
+import com.project.app.dtos.PrescriptionExportRow;
+import com.project.app.exceptions.ValidationException;
+import com.project.app.models.AppointmentStatus;
+import com.project.app.utils.CsvWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Admin exports of appointments (MySQL) and prescriptions (Mongo) as CSV or NDJSON.
+ *
+ * Rows are streamed from the store to the output one at a time: a JPA result stream read
+ * with a bounded JDBC fetch size on one side, a Mongo cursor with a bounded batch size on
+ * the other. Filters become query predicates, so memory use does not depend on how many
+ * rows are exported.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Unsupported export format: " + value + " (use csv or ndjson)");
+            }
+        }
+
+        public String extension() {
+            return this == CSV ? "csv" : "ndjson";
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Rows per JDBC round trip / Mongo batch. MySQL only honours it with useCursorFetch=true.
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * Write the matching appointments, ordered by time.
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportAppointments(ExportFilter filter, AppointmentStatus status, Format format, OutputStream out)
+            throws IOException {
+        StringBuilder jpql = new StringBuilder(
+            "SELECT new com.project.app.dtos.AppointmentExportRow(a.id, a.appointmentTime, a.status, " +
+            "d.id, d.name, p.id, p.name, p.email, p.phoneNumber) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.patient p WHERE 1 = 1");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (filter.from() != null) {
+            jpql.append(" AND a.appointmentTime >= :start");
+            params.put("start", filter.from().atStartOfDay());
+        }
+        if (filter.to() != null) {
+            jpql.append(" AND a.appointmentTime < :end");
+            params.put("end", filter.to().plusDays(1).atStartOfDay());
+        }
+        if (filter.doctorId() != null) {
+            jpql.append(" AND d.id = :doctorId");
+            params.put("doctorId", filter.doctorId());
+        }
+        if (status != null) {
+            jpql.append(" AND a.status = :status");
+            params.put("status", status);
+        }
+        jpql.append(" ORDER BY a.appointmentTime, a.id");
+
+        TypedQuery<AppointmentExportRow> query = entityManager.createQuery(jpql.toString(), AppointmentExportRow.class);
+        params.forEach(query::setParameter);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        long count;
+        try (Stream<AppointmentExportRow> rows = query.getResultStream()) {
+            count = format == Format.CSV ? writeAppointmentsCsv(rows, out) : writeNdjson(rows, out);
+        }
+        logger.info("Exported {} appointments as {}", count, format);
+        return count;
+    }
+
+    /**
+     * Write the matching prescriptions in storage order. Sorting the whole collection on an
+     * unindexed key would make the server buffer it, so no order is requested.
+     * @return the number of rows written
+     */
+    public long exportPrescriptions(ExportFilter filter, String status, Format format, OutputStream out)
+            throws IOException {
+        Query query = new Query();
+        if (filter.from() != null || filter.to() != null) {
+            Criteria prescribedAt = Criteria.where("prescribedAt");
+            if (filter.from() != null) {
+                prescribedAt.gte(filter.from().atStartOfDay());
+            }
+            if (filter.to() != null) {
+                prescribedAt.lt(filter.to().plusDays(1).atStartOfDay());
+            }
+            query.addCriteria(prescribedAt);
+        }
+        if (filter.doctorId() != null) {
+            query.addCriteria(Criteria.where("doctorId").is(filter.doctorId()));
+        }
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status.trim().toUpperCase(Locale.ROOT)));
+        }
+        query.fields().include("patientId", "doctorId", "appointmentId", "medication", "dosage",
+            "duration", "notes", "status", "prescribedAt");
+        query.cursorBatchSize(fetchSize);
+
+        long count;
+        try (Stream<PrescriptionExportRow> rows =
+                 mongoTemplate.stream(query, PrescriptionExportRow.class, "prescriptions")) {
+            count = format == Format.CSV ? writePrescriptionsCsv(rows, out) : writeNdjson(rows, out);
+        }
+        logger.info("Exported {} prescriptions as {}", count, format);
+        return count;
+    }
+
+    private long writeAppointmentsCsv(Stream<AppointmentExportRow> rows, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        csv.row("appointment_id", "appointment_time", "status", "doctor_id", "doctor_name",
+            "patient_id", "patient_name", "patient_email", "patient_phone");
+        long count = 0;
+        for (AppointmentExportRow row : (Iterable<AppointmentExportRow>) rows::iterator) {
+            csv.row(row.id(), row.appointmentTime(), row.status(), row.doctorId(), row.doctorName(),
+                row.patientId(), row.patientName(), row.patientEmail(), row.patientPhone());
+            count++;
+        }
+        csv.flush();
+        return count;
+    }
+
+    private long writePrescriptionsCsv(Stream<PrescriptionExportRow> rows, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        csv.row("prescription_id", "prescribed_at", "status", "doctor_id", "patient_id", "appointment_id",
+            "medication", "dosage", "duration", "notes");
+        long count = 0;
+        for (PrescriptionExportRow row : (Iterable<PrescriptionExportRow>) rows::iterator) {
+            csv.row(row.id(), row.prescribedAt(), row.status(), row.doctorId(), row.patientId(),
+                row.appointmentId(), row.medication(), row.dosage(), row.duration(), row.notes());
+            count++;
+        }
+        csv.flush();
+        return count;
+    }
+
+    // One JSON object per line, written through a single generator
+    private <T> long writeNdjson(Stream<T> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            // The newline is the separator; drop the default space between root values
+            json.setRootValueSeparator(null);
+            for (T row : (Iterable<T>) rows::iterator) {
+                json.writeObject(row);
+                json.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+}
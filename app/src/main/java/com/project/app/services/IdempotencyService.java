@@ -0,0 +1,156 @@
+package com.project.app.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.app.exceptions.DomainException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response for a repeated Idempotency-Key instead of running the
+ * request again.
+ *
+ * Keys are scoped by the caller and endpoint, and remembered in a bounded LRU map for a
+ * limited time together with a fingerprint of the request body. A retry with the same key
+ * and body gets the first response back without any database work; the same key with a
+ * different body is rejected with 422. A retry that arrives while the first request is
+ * still running waits for its result. Server errors are not remembered, so those retries
+ * run again.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${app.idempotency.in-flight-wait-ms:10000}")
+    private long inFlightWaitMs;
+
+    private record Entry(byte[] fingerprint, CompletableFuture<ResponseEntity<?>> response, long createdAt) {}
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Run {@code action} once per (scope, key). Without a key the action simply runs.
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object requestBody,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", KEY_HEADER + " must be at most " + MAX_KEY_LENGTH + " characters"));
+        }
+
+        String storeKey = scope + '\n' + key;
+        byte[] fingerprint = fingerprint(requestBody);
+        Entry mine = new Entry(fingerprint, new CompletableFuture<>(), System.currentTimeMillis());
+        Entry existing;
+        synchronized (entries) {
+            existing = entries.get(storeKey);
+            if (existing != null && isExpired(existing) && existing.response().isDone()) {
+                entries.remove(storeKey);
+                existing = null;
+            }
+            if (existing == null) {
+                entries.put(storeKey, mine);
+            }
+        }
+
+        if (existing != null) {
+            if (!Arrays.equals(existing.fingerprint(), fingerprint)) {
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(Map.of("error", KEY_HEADER + " was already used for a different request"));
+            }
+            return replay(existing);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            forget(storeKey, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            forget(storeKey, mine);
+        }
+        mine.response().complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(Entry entry) {
+        ResponseEntity<?> stored;
+        try {
+            stored = entry.response().get(inFlightWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "A request with this " + KEY_HEADER + " is still being processed"));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DomainException domain) {
+                // Expected outcome, answered the same way as for the original request
+                throw domain;
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Original request failed: " + e.getCause().getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "Interrupted while waiting for the original request"));
+        }
+        return ResponseEntity.status(stored.getStatusCode())
+            .headers(stored.getHeaders())
+            .header(REPLAYED_HEADER, "true")
+            .body(stored.getBody());
+    }
+
+    private void forget(String storeKey, Entry entry) {
+        synchronized (entries) {
+            entries.remove(storeKey, entry);
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.createdAt() > ttlMs;
+    }
+
+    private byte[] fingerprint(Object requestBody) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(requestBody));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+}
@@ -1,13 +1,12 @@
 package com.project.app.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import com.project.app.security.UserDetailsImpl;
 
 import com.project.app.models.Patient;
-import com.project.app.models.Appointment;
 import com.project.app.models.Prescription;
 import com.project.app.dtos.PatientDTO;
 import com.project.app.dtos.AppointmentDTO;
@@ -15,6 +14,8 @@ import com.project.app.dtos.PrescriptionDTO;
 import com.project.app.repositories.PatientRepo;
 import com.project.app.repositories.AppointmentRepo;
 import com.project.app.repositories.PrescriptionRepo;
+import com.project.app.exceptions.ConflictException;
+import com.project.app.exceptions.NotFoundException;
 
 import java.util.*;
 import org.slf4j.Logger;
@@ -37,137 +38,98 @@ public class PatientService {
     @Autowired
     private PrescriptionRepo prescriptionRepo;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @Transactional
-    public ResponseEntity<?> registerPatient(PatientDTO patientDTO) {
-        try {
-            if (patientRepo.existsByEmail(patientDTO.getEmail())) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Email already registered"
-                ));
-            }
-
-            Patient patient = new Patient();
-            patient.setName(patientDTO.getName());
-            patient.setEmail(patientDTO.getEmail());
-            patient.setPhoneNumber(patientDTO.getPhoneNumber());
-            patient.setAddress(patientDTO.getAddress());
-            patient.setPassword(patientDTO.getPassword()); // Store password as-is
-
-            patient = patientRepo.save(patient);
-
-            return ResponseEntity.ok(Map.of(
-                "message", "Registration successful",
-                "patient", convertToDTO(patient)
-            ));
-
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Registration failed: " + e.getMessage()));
+    public PatientDTO registerPatient(PatientDTO patientDTO) {
+        if (patientRepo.existsByEmail(patientDTO.getEmail())) {
+            throw new ConflictException("Email already registered");
         }
-    }
-
-    public ResponseEntity<?> login(Map<String, String> credentials) {
-        try {
-            String email = credentials.get("email");
-            String password = credentials.get("password");
-
-            Patient patient = patientRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Patient not found"));
-
-            if (!password.equals(patient.getPassword())) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Invalid credentials"));
-            }
-
-            PatientDTO patientDTO = convertToDTO(patient);
-            Map<String, Object> responseBody = new HashMap<>();
-            responseBody.put("patient", patientDTO);
-
-            logger.info("Patient login successful for: {}. Sending response: {}", email, responseBody);
 
-            return ResponseEntity.ok(responseBody);
+        Patient patient = new Patient();
+        patient.setName(patientDTO.getName());
+        patient.setEmail(patientDTO.getEmail());
+        patient.setPhoneNumber(patientDTO.getPhoneNumber());
+        patient.setAddress(patientDTO.getAddress());
+        patient.setPassword(passwordEncoder.encode(patientDTO.getPassword()));
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Login failed: " + e.getMessage()));
-        }
+        return convertToDTO(patientRepo.save(patient));
     }
 
-    @Transactional
-    public ResponseEntity<?> updatePatientProfile(String email, PatientDTO patientDTO) {
-        try {
-            Patient patient = patientRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Patient not found"));
-
-            if (patientDTO.getName() != null) patient.setName(patientDTO.getName());
-            if (patientDTO.getPhoneNumber() != null) patient.setPhoneNumber(patientDTO.getPhoneNumber());
-            if (patientDTO.getAddress() != null) patient.setAddress(patientDTO.getAddress());
-            if (patientDTO.getPassword() != null) {
-                patient.setPassword(patientDTO.getPassword()); // Store password as-is
-            }
-
+    /**
+     * The patient for these credentials, or empty if the email is unknown or the password wrong.
+     */
+    public Optional<PatientDTO> login(String email, String password) {
+        Optional<Patient> found = patientRepo.findByEmail(email);
+        if (found.isEmpty() || !passwordEncoder.matches(password, found.get().getPassword())) {
+            return Optional.empty();
+        }
+        Patient patient = found.get();
+        if (passwordEncoder.upgradeEncoding(patient.getPassword())) {
+            patient.setPassword(passwordEncoder.encode(password));
             patientRepo.save(patient);
-            return ResponseEntity.ok(convertToDTO(patient));
-
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to update profile: " + e.getMessage()));
         }
-    }
-
-    public ResponseEntity<?> getPatientProfile(String email) {
-        try {
-            Patient patient = patientRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Patient not found"));
 
-            return ResponseEntity.ok(convertToDTO(patient));
-
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch profile: " + e.getMessage()));
-        }
+        logger.info("Patient login successful for: {}", email);
+        return Optional.of(convertToDTO(patient));
     }
 
-    public ResponseEntity<?> getPatientAppointments(String email) {
-        try {
-            Patient patient = patientRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Patient not found"));
-
-            List<Appointment> appointments = appointmentRepo.findByPatient_Id(patient.getId());
-            List<AppointmentDTO> appointmentDTOs = appointments.stream()
-                .map(this::convertToAppointmentDTO)
-                .collect(Collectors.toList());
+    @Transactional
+    public PatientDTO updatePatientProfile(String email, PatientDTO patientDTO) {
+        Patient patient = patientRepo.findByEmail(email)
+            .orElseThrow(() -> new NotFoundException("Patient not found"));
+
+        if (patientDTO.getName() != null) patient.setName(patientDTO.getName());
+        if (patientDTO.getPhoneNumber() != null) patient.setPhoneNumber(patientDTO.getPhoneNumber());
+        if (patientDTO.getAddress() != null) patient.setAddress(patientDTO.getAddress());
+        if (patientDTO.getPassword() != null) {
+            patient.setPassword(passwordEncoder.encode(patientDTO.getPassword()));
+        }
 
-            return ResponseEntity.ok(Map.of("appointments", appointmentDTOs));
+        patientRepo.save(patient);
+        return convertToDTO(patient);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch appointments: " + e.getMessage()));
-        }
+    public PatientDTO getPatientProfile(String email) {
+        Patient patient = patientRepo.findByEmail(email)
+            .orElseThrow(() -> new NotFoundException("Patient not found"));
+        return convertToDTO(patient);
     }
 
-    public ResponseEntity<?> getPatientPrescriptions(String email) {
-        try {
-            Patient patient = patientRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Patient not found"));
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getPatientAppointments(String email) {
+        return getPatientAppointments(resolvePatientId(email));
+    }
 
-            List<Prescription> prescriptions = prescriptionRepo.findByPatientId(patient.getId());
-            List<PrescriptionDTO> prescriptionDTOs = prescriptions.stream()
-                .map(this::convertToPrescriptionDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getPatientAppointments(Long patientId) {
+        return appointmentRepo.findDtosByPatientId(patientId);
+    }
 
-            return ResponseEntity.ok(Map.of("prescriptions", prescriptionDTOs));
+    public List<PrescriptionDTO> getPatientPrescriptions(String email) {
+        return getPatientPrescriptions(resolvePatientId(email));
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch prescriptions: " + e.getMessage()));
-        }
+    public List<PrescriptionDTO> getPatientPrescriptions(Long patientId) {
+        return prescriptionRepo.findByPatientId(patientId).stream()
+            .map(this::convertToPrescriptionDTO)
+            .collect(Collectors.toList());
     }
 
     public Optional<Patient> findPatientByEmail(String email) {
         return patientRepo.findByEmail(email);
     }
 
+    /**
+     * The patient's id from the access token when the caller is that patient, else by email.
+     */
+    private Long resolvePatientId(String email) {
+        return UserDetailsImpl.currentId("PATIENT", email)
+            .orElseGet(() -> patientRepo.findIdByEmail(email)
+                .orElseThrow(() -> new NotFoundException("Patient not found")));
+    }
+
     private PatientDTO convertToDTO(Patient patient) {
         PatientDTO dto = new PatientDTO();
         dto.setId(patient.getId());
@@ -178,21 +140,6 @@ public class PatientService {
         return dto;
     }
 
-    private AppointmentDTO convertToAppointmentDTO(Appointment appointment) {
-        return new AppointmentDTO(
-            appointment.getId(),
-            appointment.getDoctorId(),
-            appointment.getDoctor().getName(),
-            appointment.getPatientId(),
-            appointment.getPatient().getName(),
-            appointment.getPatient().getEmail(),
-            appointment.getPatient().getPhoneNumber(),
-            appointment.getPatient().getAddress(),
-            appointment.getAppointmentTime(),
-            appointment.getStatus()
-        );
-    }
-
     private PrescriptionDTO convertToPrescriptionDTO(Prescription prescription) {
         // Since this service doesn't have access to DoctorRepo, we can't fetch the doctor's name.
         // For now, we'll leave it as null. A better solution would be a shared DTO conversion service.
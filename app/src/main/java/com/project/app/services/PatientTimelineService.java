@@ -0,0 +1,218 @@
+package com.project.app.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.project.app.dtos.AppointmentTimelineRow;
+import com.project.app.dtos.PrescriptionSummaryDTO;
+import com.project.app.dtos.TimelineEntryDTO;
+import com.project.app.exceptions.NotFoundException;
+import com.project.app.exceptions.ValidationException;
+import com.project.app.models.Doctor;
+import com.project.app.models.Prescription;
+import com.project.app.repositories.AppointmentRepo;
+import com.project.app.repositories.DoctorRepo;
+import com.project.app.repositories.PatientRepo;
+import com.project.app.security.UserDetailsImpl;
+import com.project.app.utils.SortedMerge;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a patient's history as one newest-first stream of appointments (MySQL) and
+ * prescriptions (Mongo).
+ *
+ * Each store is asked for at most one page past the cursor, already sorted by time, and
+ * the sorted pages are combined with a k-way merge. The cursor is the (time, type, id)
+ * position of the last entry returned, so the next page resumes exactly after it.
+ */
+@Service
+public class PatientTimelineService {
+
+    private static final int MAX_LIMIT = 100;
+
+    // Upper bound for the first page; MySQL DATETIME cannot hold LocalDateTime.MAX
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final Comparator<TimelineEntryDTO> NEWEST_FIRST =
+        Comparator.comparing(TimelineEntryDTO::time, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(TimelineEntryDTO::type);
+
+    @Autowired
+    private PatientRepo patientRepo;
+
+    @Autowired
+    private AppointmentRepo appointmentRepo;
+
+    @Autowired
+    private DoctorRepo doctorRepo;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private record Cursor(LocalDateTime time, TimelineEntryDTO.Type type, String id) {}
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPatientTimeline(String email, String cursorToken, int limit) {
+        Long patientId = UserDetailsImpl.currentId("PATIENT", email)
+            .orElseGet(() -> patientRepo.findIdByEmail(email)
+                .orElseThrow(() -> new NotFoundException("Patient not found")));
+        return getPatientTimeline(patientId, cursorToken, limit);
+    }
+
+    /**
+     * One page of the timeline: {"entries": [...], "nextCursor": token or null}.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPatientTimeline(Long patientId, String cursorToken, int limit) {
+        Cursor cursor;
+        try {
+            cursor = decodeCursor(cursorToken);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+
+        // One extra row per source tells us whether anything is left after this page
+        List<TimelineEntryDTO> appointments = fetchAppointments(patientId, cursor, pageSize + 1);
+        List<TimelineEntryDTO> prescriptions = fetchPrescriptions(patientId, cursor, pageSize + 1);
+
+        List<TimelineEntryDTO> merged = SortedMerge.merge(
+            List.of(appointments, prescriptions), NEWEST_FIRST, pageSize + 1);
+        boolean hasMore = merged.size() > pageSize;
+        List<TimelineEntryDTO> page = hasMore ? merged.subList(0, pageSize) : merged;
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("entries", withDoctorNames(page));
+        body.put("nextCursor", hasMore ? encodeCursor(page.get(page.size() - 1)) : null);
+        return body;
+    }
+
+    private List<TimelineEntryDTO> fetchAppointments(Long patientId, Cursor cursor, int limit) {
+        LocalDateTime before = END_OF_TIME;
+        long beforeId = Long.MAX_VALUE;
+        if (cursor != null) {
+            before = cursor.time();
+            // Appointments sort before prescriptions at the same time, so after a
+            // prescription cursor every appointment at that time has been returned
+            beforeId = cursor.type() == TimelineEntryDTO.Type.APPOINTMENT
+                ? Long.parseLong(cursor.id())
+                : Long.MIN_VALUE;
+        }
+        List<AppointmentTimelineRow> rows = appointmentRepo.findTimelinePage(
+            patientId, before, beforeId, PageRequest.of(0, limit));
+
+        List<TimelineEntryDTO> entries = new ArrayList<>(rows.size());
+        for (AppointmentTimelineRow row : rows) {
+            entries.add(new TimelineEntryDTO(
+                TimelineEntryDTO.Type.APPOINTMENT,
+                String.valueOf(row.id()),
+                row.appointmentTime(),
+                row.doctorId(),
+                row.doctorName(),
+                row.status().name(),
+                null, null, null
+            ));
+        }
+        return entries;
+    }
+
+    private List<TimelineEntryDTO> fetchPrescriptions(Long patientId, Cursor cursor, int limit) {
+        Criteria criteria = Criteria.where("patientId").is(patientId);
+        if (cursor != null) {
+            if (cursor.type() == TimelineEntryDTO.Type.APPOINTMENT) {
+                // Prescriptions at the cursor time come after its appointments
+                criteria = criteria.and("prescribedAt").lte(cursor.time());
+            } else {
+                criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                    Criteria.where("prescribedAt").lt(cursor.time()),
+                    Criteria.where("prescribedAt").is(cursor.time()).and("id").lt(cursor.id())
+                ));
+            }
+        }
+        Query query = Query.query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "prescribedAt", "id"))
+            .limit(limit);
+
+        List<PrescriptionSummaryDTO> rows = mongoTemplate.query(Prescription.class)
+            .as(PrescriptionSummaryDTO.class)
+            .matching(query)
+            .all();
+
+        List<TimelineEntryDTO> entries = new ArrayList<>(rows.size());
+        for (PrescriptionSummaryDTO row : rows) {
+            entries.add(new TimelineEntryDTO(
+                TimelineEntryDTO.Type.PRESCRIPTION,
+                row.id(),
+                row.prescribedAt(),
+                row.doctorId(),
+                null,
+                row.status(),
+                row.medication(),
+                row.dosage(),
+                row.duration()
+            ));
+        }
+        return entries;
+    }
+
+    /**
+     * Prescriptions only carry a doctor id; resolve the names for this page in one query.
+     */
+    private List<TimelineEntryDTO> withDoctorNames(List<TimelineEntryDTO> page) {
+        Set<Long> missing = page.stream()
+            .filter(e -> e.doctorName() == null && e.doctorId() != null)
+            .map(TimelineEntryDTO::doctorId)
+            .collect(Collectors.toSet());
+        if (missing.isEmpty()) {
+            return page;
+        }
+        Map<Long, String> names = doctorRepo.findAllById(missing).stream()
+            .collect(Collectors.toMap(Doctor::getId, Doctor::getName));
+
+        List<TimelineEntryDTO> result = new ArrayList<>(page.size());
+        for (TimelineEntryDTO e : page) {
+            if (e.doctorName() == null && e.doctorId() != null) {
+                e = new TimelineEntryDTO(e.type(), e.id(), e.time(), e.doctorId(),
+                    names.getOrDefault(e.doctorId(), "N/A"), e.status(),
+                    e.medication(), e.dosage(), e.duration());
+            }
+            result.add(e);
+        }
+        return result;
+    }
+
+    private static String encodeCursor(TimelineEntryDTO last) {
+        String raw = last.time() + "|" + last.type() + "|" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            Cursor cursor = new Cursor(LocalDateTime.parse(parts[0]), TimelineEntryDTO.Type.valueOf(parts[1]), parts[2]);
+            if (cursor.type() == TimelineEntryDTO.Type.APPOINTMENT) {
+                Long.parseLong(cursor.id());
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -1,18 +1,26 @@
 package com.project.app.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.project.app.dtos.PrescriptionRequest;
+import com.project.app.dtos.PrescriptionSummaryDTO;
+import com.project.app.exceptions.ForbiddenException;
+import com.project.app.exceptions.NotFoundException;
 import com.project.app.models.Prescription;
 import com.project.app.repositories.PrescriptionRepo;
 import com.project.app.repositories.DoctorRepo;
 import com.project.app.repositories.PatientRepo;
+import com.project.app.security.UserDetailsImpl;
 
 import java.util.Map;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -27,81 +35,100 @@ public class PrescriptionService {
     @Autowired
     private PatientRepo patientRepository;
 
+    @Value("${app.mongodb.prescriptions.secondary-reads:false}")
+    private boolean secondaryReads;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Save a new prescription by the given doctor. The document is built here with no id,
+     * so a request can never overwrite an existing prescription.
+     */
     @Transactional
-    public ResponseEntity<?> savePrescription(Prescription prescription) {
-        try {
-            prescription.prePersist();
-            Prescription saved = prescriptionRepo.save(prescription);
-            
-            return ResponseEntity.status(HttpStatus.CREATED)
-                .body(Map.of(
-                    "message", "Prescription saved",
-                    "id", saved.getId()
-                ));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of(
-                    "error", "Failed to save prescription: " + e.getMessage()
-                ));
-        }
+    public Prescription savePrescription(Long doctorId, PrescriptionRequest request) {
+        Prescription prescription = new Prescription();
+        prescription.setDoctorId(doctorId);
+        prescription.setPatientId(request.patientId());
+        prescription.setAppointmentId(request.appointmentId());
+        prescription.setMedication(request.medication());
+        prescription.setDosage(request.dosage());
+        prescription.setDuration(request.duration());
+        prescription.setNotes(request.notes());
+        prescription.setStatus("ACTIVE");
+        prescription.prePersist();
+        return prescriptionRepo.save(prescription);
     }
 
-    public ResponseEntity<?> getPrescription(String prescriptionId) {
-        try {
-            Optional<Prescription> prescription = prescriptionRepo.findById(prescriptionId);
-            if (prescription.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Prescription not found"
-                ));
-            }
-
-            return ResponseEntity.ok(prescription.get());
-
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to fetch prescription: " + e.getMessage()
-            ));
-        }
+    /**
+     * A prescription, visible to its doctor, its patient and admins.
+     */
+    public Prescription getPrescription(String prescriptionId, UserDetailsImpl user) {
+        return readable(prescriptionRepo.findById(prescriptionId), user, "Prescription not found");
     }
 
-    public ResponseEntity<?> getPatientPrescriptions(Long patientId) {
-        try {
-            List<Prescription> prescriptions = prescriptionRepo.findByPatientId(patientId);
-            return ResponseEntity.ok(Map.of("prescriptions", prescriptions));
+    public List<Prescription> getPatientPrescriptions(Long patientId) {
+        return prescriptionRepo.findByPatientId(patientId);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to fetch prescriptions: " + e.getMessage()
-            ));
-        }
+    public List<Prescription> getDoctorPrescriptions(Long doctorId) {
+        return prescriptionRepo.findByDoctorId(doctorId);
     }
 
-    public ResponseEntity<?> getDoctorPrescriptions(Long doctorId) {
-        try {
-            List<Prescription> prescriptions = prescriptionRepo.findByDoctorId(doctorId);
-            return ResponseEntity.ok(Map.of("prescriptions", prescriptions));
+    public Prescription getPrescriptionByAppointmentId(Long appointmentId, UserDetailsImpl user) {
+        return readable(prescriptionRepo.findFirstByAppointmentId(appointmentId), user,
+            "No prescription found for appointment ID: " + appointmentId);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to fetch prescriptions: " + e.getMessage()
-            ));
-        }
+    public Map<String, Object> getPatientPrescriptionPage(Long patientId, int page, int size) {
+        Pageable pageable = pageRequest(page, size);
+        Slice<PrescriptionSummaryDTO> slice = secondaryReads
+            ? prescriptionRepo.findSecondarySummariesByPatientIdOrderByPrescribedAtDesc(patientId, pageable)
+            : prescriptionRepo.findSummariesByPatientIdOrderByPrescribedAtDesc(patientId, pageable);
+        return toPageBody(slice);
     }
 
-    public ResponseEntity<?> getPrescriptionByAppointmentId(Long appointmentId) {
-        try {
-            Optional<Prescription> prescription = prescriptionRepo.findFirstByAppointmentId(appointmentId);
-            if (prescription.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Map.of("message", "No prescription found for appointment ID: " + appointmentId));
-            }
+    public Map<String, Object> getDoctorPrescriptionPage(Long doctorId, int page, int size) {
+        Pageable pageable = pageRequest(page, size);
+        Slice<PrescriptionSummaryDTO> slice = secondaryReads
+            ? prescriptionRepo.findSecondarySummariesByDoctorIdOrderByPrescribedAtDesc(doctorId, pageable)
+            : prescriptionRepo.findSummariesByDoctorIdOrderByPrescribedAtDesc(doctorId, pageable);
+        return toPageBody(slice);
+    }
 
-            return ResponseEntity.ok(prescription.get());
+    /**
+     * Version tag for conditional GETs; it changes whenever the document is updated.
+     */
+    public static String etag(Prescription prescription) {
+        return prescription.getId() + "-" + Integer.toHexString(Objects.hashCode(prescription.getUpdatedAt()));
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "error", "Failed to fetch prescription: " + e.getMessage()
-            ));
+    private Prescription readable(Optional<Prescription> found, UserDetailsImpl user, String notFoundMessage) {
+        Prescription prescription = found.orElseThrow(() -> new NotFoundException(notFoundMessage));
+        if (!canRead(prescription, user)) {
+            throw new ForbiddenException("Unauthorized to access this prescription");
         }
+        return prescription;
+    }
+
+    private static boolean canRead(Prescription prescription, UserDetailsImpl user) {
+        return switch (String.valueOf(user.getRole())) {
+            case "ADMIN" -> true;
+            case "DOCTOR" -> user.getId().equals(prescription.getDoctorId());
+            case "PATIENT" -> user.getId().equals(prescription.getPatientId());
+            default -> false;
+        };
+    }
+
+    private Pageable pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    private Map<String, Object> toPageBody(Slice<PrescriptionSummaryDTO> slice) {
+        return Map.of(
+            "prescriptions", slice.getContent(),
+            "page", slice.getNumber(),
+            "size", slice.getSize(),
+            "hasNext", slice.hasNext()
+        );
     }
 }
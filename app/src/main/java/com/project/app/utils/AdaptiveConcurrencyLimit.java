@@ -0,0 +1,123 @@
+package com.project.app.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AIMD concurrency limit driven by observed latency.
+ *
+ * A call that finishes within {@code tolerance} times the baseline latency, while the limit
+ * is at least half used, raises the limit by one. A slower call or a dropped call (server
+ * error) multiplies it by {@code backoff}, at most once per baseline latency so a burst of
+ * slow calls counts as a single congestion signal. The baseline is a slow moving average
+ * of latency, with each sample capped at the tolerance so congestion cannot drag it up
+ * quickly. The limit stays within [min, max]; max is a hard ceiling and works as a bulkhead.
+ *
+ * Acquiring is a CAS on the in-flight count; only completions take the lock.
+ */
+public class AdaptiveConcurrencyLimit implements MeterBinder {
+
+    private static final double BASELINE_SMOOTHING = 0.02;
+
+    private final String name;
+    private final int min;
+    private final int max;
+    private final double tolerance;
+    private final double backoff;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double baselineNanos;
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimit(String name, int initial, int min, int max, double tolerance, double backoff) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Invalid concurrency bounds for " + name + ": " + min + ".." + max);
+        }
+        this.name = name;
+        this.min = min;
+        this.max = max;
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.estimatedLimit = Math.max(min, Math.min(max, initial));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return true if the caller may proceed; it must then call {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, boolean dropped) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(latencyNanos, inFlightAtCompletion, dropped);
+    }
+
+    private synchronized void onSample(long latencyNanos, int inFlightAtCompletion, boolean dropped) {
+        if (baselineNanos == 0) {
+            baselineNanos = latencyNanos;
+        }
+        long now = System.nanoTime();
+        boolean congested = dropped || latencyNanos > baselineNanos * tolerance;
+        if (congested) {
+            if (now - lastDecrease > baselineNanos) {
+                estimatedLimit = Math.max(min, estimatedLimit * backoff);
+                lastDecrease = now;
+            }
+        } else if (inFlightAtCompletion * 2 >= estimatedLimit) {
+            estimatedLimit = Math.min(max, estimatedLimit + 1);
+        }
+        baselineNanos += (Math.min(latencyNanos, baselineNanos * tolerance) - baselineNanos) * BASELINE_SMOOTHING;
+        limit = (int) estimatedLimit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimit::getLimit)
+            .tag("group", name)
+            .register(registry);
+        Gauge.builder("concurrency.in_flight", this, AdaptiveConcurrencyLimit::getInFlight)
+            .tag("group", name)
+            .register(registry);
+        FunctionCounter.builder("concurrency.rejected", rejected, LongAdder::sum)
+            .tag("group", name)
+            .description("Requests shed because the group was at its limit")
+            .register(registry);
+    }
+}
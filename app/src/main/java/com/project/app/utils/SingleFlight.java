@@ -0,0 +1,93 @@
+package com.project.app.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls: the first caller for a key runs the loader on its
+ * own thread, and callers arriving while it is in flight wait for and share the same result
+ * (or exception). Nothing is cached once the call completes.
+ *
+ * Shared results are handed to several callers, so they must not be mutated.
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            deduplicated.increment();
+            return await(existing);
+        }
+
+        executed.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("singleflight.calls", executed, LongAdder::sum)
+            .tag("name", name).tag("result", "executed")
+            .description("Calls that ran the underlying load")
+            .register(registry);
+        FunctionCounter.builder("singleflight.calls", deduplicated, LongAdder::sum)
+            .tag("name", name).tag("result", "deduplicated")
+            .description("Calls that shared an in-flight load")
+            .register(registry);
+        Gauge.builder("singleflight.in_flight", inFlight, ConcurrentHashMap::size)
+            .tag("name", name)
+            .register(registry);
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared call", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.project.app.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of lists that are each already sorted by the same comparator. The heap holds
+ * one head per source, so taking the first {@code limit} elements costs
+ * O(limit * log(sources)) whatever the length of the sources.
+ */
+public final class SortedMerge {
+
+    private SortedMerge() {
+    }
+
+    /**
+     * Merge sorted sources, stopping after {@code limit} elements. Elements that compare
+     * equal keep no particular order between sources.
+     */
+    public static <T> List<T> merge(List<? extends List<? extends T>> sources, Comparator<? super T> order, int limit) {
+        record Head<T>(T element, Iterator<? extends T> rest) {}
+
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(
+            Math.max(sources.size(), 1), (a, b) -> order.compare(a.element(), b.element()));
+        for (List<? extends T> source : sources) {
+            Iterator<? extends T> it = source.iterator();
+            if (it.hasNext()) {
+                heads.add(new Head<>(it.next(), it));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(Math.max(limit, 0));
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.element());
+            if (head.rest().hasNext()) {
+                heads.add(new Head<>(head.rest().next(), head.rest()));
+            }
+        }
+        return merged;
+    }
+}
@@ -24,20 +24,20 @@ INSERT IGNORE INTO patient (address, email, name, password, phone_number) VALUES
 ('404 Birch Ln, Metropolis', 'michael.j@example.com', 'Michael Jordan', '$2a$10$TodojJ4Gmu5VusJYT9CKhOS36vcL4fmRAKfIbpumhf/kJ8KmvvrwK', '888-444-4444'),
 ('505 Cedar Blvd, Springfield', 'olivia.m@example.com', 'Olivia Moon', '$2a$10$rXwbMFg1n5Hrk.6BkSlZu.0UapolqLnHHoOYbdr2M616Mpc/.7doK', '888-555-5555');
 -- Sample Appointments
+-- status holds AppointmentStatus codes: 0 BOOKED, 1 SCHEDULED, 2 CONFIRMED, 3 COMPLETED, 4 CANCELLED, 5 NO_SHOW
 INSERT INTO appointment (doctor_id, patient_id, appointment_time, status) VALUES
-(1, 1, '2025-07-10 09:00:00', 'SCHEDULED'),
-(1, 2, '2025-07-10 10:30:00', 'COMPLETED'),
-(1, 3, '2025-07-11 14:00:00', 'SCHEDULED'),
-(2, 4, '2025-07-12 11:00:00', 'SCHEDULED'),
-(2, 5, '2025-07-12 15:30:00', 'CANCELLED');
+(1, 1, '2025-07-10 09:00:00', 1),
+(1, 2, '2025-07-10 10:30:00', 3),
+(1, 3, '2025-07-11 14:00:00', 1),
+(2, 4, '2025-07-12 11:00:00', 1),
+(2, 5, '2025-07-12 15:30:00', 4);
 
--- Sample Available Times for Dr. Emily Adams (Doctor ID: 1)
-INSERT IGNORE INTO doctor_available_times (doctor_id, available_times) VALUES
-(1, '09:00 AM'),
-(1, '10:00 AM'),
-(1, '11:00 AM'),
-(1, '02:00 PM'),
-(1, '03:00 PM');
+-- Weekly hours for Dr. Emily Adams (Doctor ID: 1): 60-minute slots from midnight, bit i = hour i.
+-- Weekdays 09:00-12:00 and 14:00-16:00 = bits 9,10,11,14,15 = 52736; closed at weekends.
+-- Doctors without a row use app.availability.default.* (09:00-17:00, 30-minute slots, every day).
+INSERT IGNORE INTO availability_template (doctor_id, slot_minutes, day_start_minute,
+    monday_mask, tuesday_mask, wednesday_mask, thursday_mask, friday_mask, saturday_mask, sunday_mask) VALUES
+(1, 60, 0, 52736, 52736, 52736, 52736, 52736, 0, 0);
 
 -- Note: Stored procedures have been moved to separate migration files
 -- to avoid conflicts with Spring Boot's SQL script executor
\ No newline at end of file
@@ -1,5 +1,6 @@
 DELIMITER $$
 
+-- Superseded by DailyReportService (/api/admin/reports/daily); kept for ad-hoc use.
 CREATE PROCEDURE GetDailyAppointmentReportByDoctor(
     IN report_date DATE
 )
@@ -9,7 +10,7 @@ BEGIN
         a.appointment_time,
         a.status,
         p.name AS patient_name,
-        p.phone AS patient_phone
+        p.phone_number AS patient_phone
     FROM 
         appointment a
     JOIN 
@@ -17,9 +18,10 @@ BEGIN
     JOIN 
         patient p ON a.patient_id = p.id
     WHERE 
-        DATE(a.appointment_time) = report_date
+        a.appointment_time >= report_date
+        AND a.appointment_time < report_date + INTERVAL 1 DAY
     ORDER BY 
         d.name, a.appointment_time;
 END$$
 
-DELIMITER ;
\ No newline at end of file
+DELIMITER ;
@@ -13,6 +13,7 @@ BEGIN
     WHERE
         MONTH(appointment_time) = input_month 
         AND YEAR(appointment_time) = input_year
+        AND status <> 4 -- AppointmentStatus.CANCELLED
     GROUP BY
         doctor_id
     ORDER BY
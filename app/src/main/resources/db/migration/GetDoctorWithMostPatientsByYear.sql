@@ -11,6 +11,7 @@ BEGIN
         appointment
     WHERE
         YEAR(appointment_time) = input_year
+        AND status <> 4 -- AppointmentStatus.CANCELLED
     GROUP BY
         doctor_id
     ORDER BY
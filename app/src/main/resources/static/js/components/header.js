@@ -74,8 +74,24 @@ class Header {
     handleLogout() {
         console.log('Logout requested from header');
         
+        // Revoke the token server-side; local logout proceeds even if this fails
+        const token = localStorage.getItem('jwtToken') || localStorage.getItem('token');
+        const refreshToken = localStorage.getItem('refreshToken');
+        if (token) {
+            fetch('/api/auth/signout', {
+                method: 'POST',
+                headers: {
+                    'Authorization': `Bearer ${token}`,
+                    ...(refreshToken && { 'X-Refresh-Token': refreshToken })
+                },
+                keepalive: true
+            }).catch(err => console.warn('Sign-out request failed:', err));
+        }
+        
         // Clear authentication data
         localStorage.removeItem('token');
+        localStorage.removeItem('jwtToken');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
         localStorage.removeItem('userEmail');
         sessionStorage.removeItem('selectedRole');
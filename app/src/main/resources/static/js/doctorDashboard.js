@@ -119,7 +119,7 @@ class DoctorDashboardService {
             const user = authService.getCurrentUser();
             const token = authService.getToken();
             console.log('[DoctorDashboard] loadPatients: user', user, 'token', token);
-            const endpoint = `/api/doctors/${user && user.username ? user.username : 'UNKNOWN'}/patients`;
+            const endpoint = '/api/doctors/me/patients';
             console.log('[DoctorDashboard] loadPatients: endpoint', endpoint);
             const response = await apiService.get(endpoint);
             console.log('[DoctorDashboard] loadPatients: response', response);
@@ -139,7 +139,7 @@ class DoctorDashboardService {
             const user = authService.getCurrentUser();
             const token = authService.getToken();
             console.log('[DoctorDashboard] loadAppointments: user', user, 'token', token);
-            const endpoint = `/api/doctors/${user && user.username ? user.username : 'UNKNOWN'}/appointments`;
+            const endpoint = '/api/doctors/me/appointments';
             console.log('[DoctorDashboard] loadAppointments: endpoint', endpoint);
             const response = await apiService.get(endpoint);
             console.log('[DoctorDashboard] loadAppointments: response', response);
@@ -176,7 +176,7 @@ class DoctorDashboardService {
         if (date) {
             filtered = filtered.filter(patient => {
                 const patientAppointments = this.appointments.filter(apt => apt.patientId === patient.id);
-                return patientAppointments.some(apt => apt.date === date);
+                return patientAppointments.some(apt => apt.appointmentDate === date);
             });
         }
         
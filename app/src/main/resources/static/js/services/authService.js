@@ -5,16 +5,20 @@
 class AuthService {
     constructor() {
         this.tokenKey = 'jwtToken';
+        this.refreshTokenKey = 'refreshToken';
         this.userKey = 'user';
+        this.refreshTimer = null;
+        this.scheduleRefresh();
     }
 
     /**
      * Store authentication data in localStorage
      * @param {string} token - JWT token
      * @param {object} user - User data
+     * @param {string} [refreshToken] - Refresh token used to renew the short-lived access token
      * @returns {boolean} True if successful, false otherwise
      */
-    setAuth(token, user) {
+    setAuth(token, user, refreshToken) {
         if (!token || !user) {
             console.error('Cannot set auth: Missing token or user data');
             return false;
@@ -23,6 +27,10 @@ class AuthService {
         try {
             localStorage.setItem(this.tokenKey, token);
             localStorage.setItem(this.userKey, JSON.stringify(user));
+            if (refreshToken) {
+                localStorage.setItem(this.refreshTokenKey, refreshToken);
+            }
+            this.scheduleRefresh();
             return true;
         } catch (error) {
             console.error('Error storing auth data:', error);
@@ -69,7 +77,57 @@ class AuthService {
      */
     clearAuth() {
         localStorage.removeItem(this.tokenKey);
+        localStorage.removeItem(this.refreshTokenKey);
         localStorage.removeItem(this.userKey);
+        clearTimeout(this.refreshTimer);
+    }
+
+    /**
+     * Exchange the refresh token for a new access/refresh token pair
+     * @returns {Promise<boolean>} True if new tokens were stored
+     */
+    async refresh() {
+        const refreshToken = localStorage.getItem(this.refreshTokenKey);
+        if (!refreshToken) {
+            return false;
+        }
+        try {
+            const response = await fetch('/api/auth/refresh', {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/json' },
+                body: JSON.stringify({ refreshToken })
+            });
+            if (!response.ok) {
+                return false;
+            }
+            const result = await response.json();
+            localStorage.setItem(this.tokenKey, result.token);
+            localStorage.setItem(this.refreshTokenKey, result.refreshToken);
+            this.scheduleRefresh();
+            return true;
+        } catch (error) {
+            console.error('Error refreshing token:', error);
+            return false;
+        }
+    }
+
+    /**
+     * Renew the access token a minute before it expires, so pages that read the token
+     * from storage on each request keep working
+     */
+    scheduleRefresh() {
+        clearTimeout(this.refreshTimer);
+        const token = this.getToken();
+        if (!token || !localStorage.getItem(this.refreshTokenKey)) {
+            return;
+        }
+        try {
+            const payload = JSON.parse(atob(token.split('.')[1].replace(/-/g, '+').replace(/_/g, '/')));
+            const delay = Math.max(payload.exp * 1000 - Date.now() - 60000, 0);
+            this.refreshTimer = setTimeout(() => this.refresh(), delay);
+        } catch (error) {
+            console.error('Could not read token expiry:', error);
+        }
     }
 
     /**
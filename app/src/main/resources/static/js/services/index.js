@@ -116,7 +116,7 @@ class LoginHandler {
             console.log('User data to store:', user);
             
             // Store the token and user data
-            const authStored = authService.setAuth(result.token, user);
+            const authStored = authService.setAuth(result.token, user, result.refreshToken);
             console.log('Auth data stored:', authStored ? 'success' : 'failed');
             
             if (!authStored) {
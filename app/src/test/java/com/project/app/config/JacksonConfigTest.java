@@ -0,0 +1,50 @@
+package com.project.app.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.app.dtos.DoctorPatientDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * java.time output of the fixed-format serializers, registered as the application does.
+ */
+class JacksonConfigTest {
+
+    private static final LocalDateTime WITH_MILLIS = LocalDateTime.of(2026, 12, 21, 10, 30, 15, 123_000_000);
+
+    private final ObjectMapper mapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(JacksonConfig.javaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void dateTimesKeepTheirFractionWhenPresent() throws Exception {
+        assertThat(mapper.writeValueAsString(WITH_MILLIS)).isEqualTo("\"2026-12-21T10:30:15.123\"");
+        assertThat(mapper.writeValueAsString(WITH_MILLIS.withNano(0))).isEqualTo("\"2026-12-21T10:30:15\"");
+        assertThat(mapper.writeValueAsString(WITH_MILLIS.withSecond(0).withNano(0))).isEqualTo("\"2026-12-21T10:30:00\"");
+    }
+
+    @Test
+    void fieldsThatOptInAreWrittenToTheSecond() throws Exception {
+        DoctorPatientDTO row = new DoctorPatientDTO(1L, "Jane", "jane@example.com", null, null, WITH_MILLIS, 2L);
+
+        Map<?, ?> json = mapper.readValue(mapper.writeValueAsString(row), Map.class);
+
+        assertThat(json.get("lastVisit")).isEqualTo("2026-12-21T10:30:15");
+    }
+
+    @Test
+    void datesAndTimesUseTheShortFormats() throws Exception {
+        assertThat(mapper.writeValueAsString(LocalDate.of(2026, 1, 5))).isEqualTo("\"2026-01-05\"");
+        assertThat(mapper.writeValueAsString(LocalTime.of(9, 0))).isEqualTo("\"09:00\"");
+        assertThat(mapper.writeValueAsString(LocalTime.of(9, 0, 30))).isEqualTo("\"09:00:30\"");
+    }
+}
@@ -0,0 +1,164 @@
+package com.project.app.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing against two H2 databases standing in for the primary and the replica. Each one
+ * holds a single row naming itself, so a query shows which pool served the transaction.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final long STICKINESS_MS = 200;
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaLagMonitor lagMonitor;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        // No lag query: the replica counts as healthy, as for any H2 stand-in
+        lagMonitor = new ReplicaLagMonitor(replica, "", "", 5, 1000);
+        routing = new ReplicaRoutingDataSource(lagMonitor, STICKINESS_MS);
+        routing.setTargetDataSources(Map.of(
+            ReplicaRoutingDataSource.PRIMARY, primary,
+            ReplicaRoutingDataSource.REPLICA, replica
+        ));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        lagMonitor.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        signIn("reader@example.com");
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+    }
+
+    @Test
+    void writeTransactionsGoToThePrimary() {
+        signIn("writer@example.com");
+        assertThat(readWriteServedBy()).isEqualTo("primary");
+    }
+
+    @Test
+    void readAfterWriteStaysOnPrimaryForTheStickinessWindow() throws InterruptedException {
+        signIn("writer@example.com");
+        readWrite.executeWithoutResult(status -> servedBy());
+
+        assertThat(readOnlyServedBy()).isEqualTo("primary");
+
+        Thread.sleep(STICKINESS_MS + 50);
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+    }
+
+    @Test
+    void stickinessIsPerUser() {
+        signIn("writer@example.com");
+        readWrite.executeWithoutResult(status -> servedBy());
+
+        signIn("someone-else@example.com");
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+    }
+
+    @Test
+    void writeAfterReadOnlyInTheSameThreadStillGoesToThePrimary() {
+        // The login sequence: a read-only user lookup, then the password rehash write
+        signIn("patient@example.com");
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+        assertThat(readWriteServedBy()).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaSendsReadsToThePrimary() {
+        lagMonitor.close();
+        lagMonitor = new ReplicaLagMonitor(replica, "SELECT 30 AS replica_lag", "REPLICA_LAG", 5, 60_000);
+        lagMonitor.check();
+        routing = new ReplicaRoutingDataSource(lagMonitor, STICKINESS_MS);
+        routing.setTargetDataSources(Map.of(
+            ReplicaRoutingDataSource.PRIMARY, primary,
+            ReplicaRoutingDataSource.REPLICA, replica
+        ));
+        routing.afterPropertiesSet();
+        jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        readOnly.setReadOnly(true);
+
+        signIn("reader@example.com");
+        assertThat(readOnlyServedBy()).isEqualTo("primary");
+    }
+
+    @Test
+    void expiredStickyUsersAreEvicted() throws InterruptedException {
+        for (String user : List.of("a@example.com", "b@example.com", "c@example.com")) {
+            signIn(user);
+            readWrite.executeWithoutResult(status -> servedBy());
+        }
+        assertThat(routing.stickyUserCount()).isEqualTo(3);
+
+        // None of them reads again; any later lookup sweeps their entries once the window is over
+        Thread.sleep(STICKINESS_MS + 50);
+        signIn("d@example.com");
+        readOnly.executeWithoutResult(status -> servedBy());
+
+        assertThat(routing.stickyUserCount()).isZero();
+    }
+
+    private String readOnlyServedBy() {
+        return readOnly.execute(status -> servedBy());
+    }
+
+    private String readWriteServedBy() {
+        return readWrite.execute(status -> servedBy());
+    }
+
+    private String servedBy() {
+        return jdbc.queryForObject("SELECT name FROM which_database", String.class);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE which_database (name VARCHAR(20))");
+        jdbc.update("INSERT INTO which_database VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
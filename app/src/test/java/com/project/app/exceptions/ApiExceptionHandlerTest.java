@@ -0,0 +1,91 @@
+package com.project.app.exceptions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Status codes and problem bodies produced by the advice, through a stub controller.
+ */
+class ApiExceptionHandlerTest {
+
+    private MockMvc mockMvc;
+
+    @RestController
+    static class FailingController {
+
+        @GetMapping("/not-found")
+        String notFound() {
+            throw new NotFoundException("Doctor not found");
+        }
+
+        @GetMapping("/invalid")
+        String invalid() {
+            throw new ValidationException("Invalid appointment status: LATE");
+        }
+
+        @GetMapping("/bug")
+        String bug() {
+            throw new IllegalArgumentException("Expected 7 weekday masks");
+        }
+
+        @GetMapping("/empty")
+        String empty() {
+            return Optional.<String>empty().get();
+        }
+
+        @GetMapping("/typed")
+        String typed(@RequestParam LocalDate date) {
+            return date.toString();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new FailingController())
+            .setControllerAdvice(new ApiExceptionHandler())
+            .build();
+    }
+
+    @Test
+    void domainExceptionsKeepTheirStatusAndMessage() throws Exception {
+        mockMvc.perform(get("/not-found"))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.detail").value("Doctor not found"))
+            .andExpect(jsonPath("$.error").value("Doctor not found"));
+        mockMvc.perform(get("/invalid"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Invalid appointment status: LATE"));
+    }
+
+    @Test
+    void illegalArgumentFromServerCodeIsAServerError() throws Exception {
+        mockMvc.perform(get("/bug"))
+            .andExpect(status().isInternalServerError())
+            .andExpect(jsonPath("$.error").value("Unexpected server error"));
+    }
+
+    @Test
+    void emptyOptionalFromServerCodeIsAServerErrorNotANotFound() throws Exception {
+        mockMvc.perform(get("/empty"))
+            .andExpect(status().isInternalServerError())
+            .andExpect(jsonPath("$.error").value("Unexpected server error"));
+    }
+
+    @Test
+    void unparseableRequestParameterIsABadRequest() throws Exception {
+        mockMvc.perform(get("/typed").param("date", "not-a-date"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,46 @@
+package com.project.app.models;
+
+import com.project.app.exceptions.ConflictException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AppointmentTest {
+
+    @Test
+    void allowedTransitionChangesTheStatus() {
+        Appointment appointment = withStatus(AppointmentStatus.BOOKED);
+        appointment.changeStatus(AppointmentStatus.CONFIRMED);
+        assertThat(appointment.getStatus()).isEqualTo(AppointmentStatus.CONFIRMED);
+    }
+
+    @Test
+    void settingTheSameStatusAgainIsAllowed() {
+        Appointment appointment = withStatus(AppointmentStatus.CANCELLED);
+        appointment.changeStatus(AppointmentStatus.CANCELLED);
+        assertThat(appointment.getStatus()).isEqualTo(AppointmentStatus.CANCELLED);
+    }
+
+    @Test
+    void illegalTransitionIsAConflict() {
+        Appointment appointment = withStatus(AppointmentStatus.COMPLETED);
+        assertThatThrownBy(() -> appointment.changeStatus(AppointmentStatus.CANCELLED))
+            .isInstanceOf(ConflictException.class)
+            .hasMessage("Cannot change appointment status from COMPLETED to CANCELLED");
+        assertThat(appointment.getStatus()).isEqualTo(AppointmentStatus.COMPLETED);
+    }
+
+    @Test
+    void newAppointmentCanOnlyStartAsBooked() {
+        assertThatThrownBy(() -> new Appointment().changeStatus(AppointmentStatus.COMPLETED))
+            .isInstanceOf(ConflictException.class);
+        assertThat(Appointment.book(null, null, null).getStatus()).isEqualTo(AppointmentStatus.BOOKED);
+    }
+
+    private static Appointment withStatus(AppointmentStatus status) {
+        Appointment appointment = Appointment.book(null, null, null);
+        appointment.changeStatus(status);
+        return appointment;
+    }
+}
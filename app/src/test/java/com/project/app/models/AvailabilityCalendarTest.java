@@ -0,0 +1,132 @@
+package com.project.app.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Slot grid, window masks and overrides, on a grid of 30-minute slots from 09:00.
+ */
+class AvailabilityCalendarTest {
+
+    private static final int SLOT = 30;
+    private static final int NINE = 9 * 60;
+    // 2026-12-21 is a Monday
+    private static final LocalDate MONDAY = LocalDate.of(2026, 12, 21);
+
+    @Test
+    void rangesCompileToTheSlotsStartingInsideThem() {
+        long mask = AvailabilityCalendar.maskOf(SLOT, NINE, List.of("09:00-12:00", "13:00-17:00"));
+
+        assertThat(mask).isEqualTo(0b1111_1111_0011_1111L);
+        assertThat(calendar(mask).ranges(mask)).containsExactly("09:00-12:00", "13:00-17:00");
+        // A range ending mid-slot still covers the slot that starts inside it
+        assertThat(AvailabilityCalendar.maskOf(SLOT, NINE, List.of("09:00-09:45"))).isEqualTo(0b11L);
+    }
+
+    @Test
+    void rangesOffTheGridOrMalformedAreRejected() {
+        assertThatThrownBy(() -> AvailabilityCalendar.maskOf(SLOT, NINE, List.of("08:00-10:00")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("outside the slot grid");
+        assertThatThrownBy(() -> AvailabilityCalendar.maskOf(SLOT, NINE, List.of("10:00-09:00")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AvailabilityCalendar.maskOf(SLOT, NINE, List.of("nine to five")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void slotIndexAcceptsOnlyExactSlotStarts() {
+        AvailabilityCalendar calendar = calendar(0);
+
+        assertThat(calendar.slotIndex(LocalTime.of(9, 0))).isZero();
+        assertThat(calendar.slotIndex(LocalTime.of(9, 30))).isEqualTo(1);
+        assertThat(calendar.slotIndex(LocalTime.of(9, 15))).isEqualTo(-1);
+        assertThat(calendar.slotIndex(LocalTime.of(8, 30))).isEqualTo(-1);
+        assertThat(calendar.slotIndex(LocalTime.of(9, 30, 10))).isEqualTo(-1);
+        assertThat(calendar.slotStart(6)).isEqualTo(LocalTime.NOON);
+    }
+
+    @Test
+    void windowMaskCoversSlotsStartingInTheWindow() {
+        AvailabilityCalendar calendar = calendar(0);
+
+        // 09:00 to 23:30 is 30 slots; the afternoon starts at bit 6
+        assertThat(calendar.windowMask(0, 12 * 60)).isEqualTo(0b11_1111L);
+        assertThat(calendar.windowMask(12 * 60, 24 * 60)).isEqualTo(((1L << 30) - 1) & ~0b11_1111L);
+        assertThat(calendar.windowMask(10 * 60 + 1, 11 * 60 + 1)).isEqualTo(0b1_1000L);
+        assertThat(calendar.windowMask(8 * 60, 9 * 60)).isZero();
+    }
+
+    @Test
+    void overrideReplacesTheWeekdayMaskForItsDateOnly() {
+        long weekday = AvailabilityCalendar.maskOf(SLOT, NINE, List.of("09:00-17:00"));
+        long shortDay = AvailabilityCalendar.maskOf(SLOT, NINE, List.of("09:00-10:00"));
+        long[] weekly = new long[7];
+        weekly[DayOfWeek.MONDAY.ordinal()] = weekday;
+        AvailabilityCalendar calendar = new AvailabilityCalendar(SLOT, NINE, weekly, Map.of(MONDAY, shortDay));
+
+        assertThat(calendar.maskFor(MONDAY)).isEqualTo(shortDay);
+        assertThat(calendar.maskFor(MONDAY.plusWeeks(1))).isEqualTo(weekday);
+        assertThat(calendar.maskFor(MONDAY.plusDays(1))).isZero();
+        assertThat(calendar.isOpen(MONDAY.atTime(9, 30))).isTrue();
+        assertThat(calendar.isOpen(MONDAY.atTime(14, 0))).isFalse();
+        assertThat(calendar.isOpen(MONDAY.plusWeeks(1).atTime(14, 0))).isTrue();
+        assertThat(calendar.isOpen(MONDAY.plusWeeks(1).atTime(14, 10))).isFalse();
+    }
+
+    @Test
+    void bookedMaskIgnoresOtherDatesAndOffGridTimes() {
+        AvailabilityCalendar calendar = calendar(0);
+
+        long booked = calendar.bookedMask(MONDAY, List.of(
+            MONDAY.atTime(9, 0),
+            MONDAY.atTime(10, 30),
+            MONDAY.atTime(10, 45),
+            MONDAY.plusDays(1).atTime(9, 30)));
+
+        assertThat(booked).isEqualTo(0b1001L);
+        assertThat(calendar.slots(booked)).containsExactly(LocalTime.of(9, 0), LocalTime.of(10, 30));
+    }
+
+    @Test
+    void masksAreTrimmedToTheSlotsThatFitInTheDay() {
+        long[] allBits = new long[7];
+        Arrays.fill(allBits, -1L);
+        // Hourly slots from 20:00 leave room for four
+        AvailabilityCalendar evenings = new AvailabilityCalendar(60, 20 * 60, allBits,
+            Map.of(MONDAY, -1L));
+
+        assertThat(evenings.weeklyUnion()).isEqualTo(0b1111L);
+        assertThat(evenings.maskFor(MONDAY)).isEqualTo(0b1111L);
+        assertThat(evenings.ranges(evenings.weeklyUnion())).containsExactly("20:00-24:00");
+    }
+
+    @Test
+    void fullSixtyFourSlotDayUsesEveryBit() {
+        // 15-minute slots from 08:00 fill exactly 64 slots
+        assertThat(AvailabilityCalendar.slotCount(15, 8 * 60)).isEqualTo(AvailabilityCalendar.MAX_SLOTS);
+        long mask = AvailabilityCalendar.maskOf(15, 8 * 60, List.of("08:00-24:00"));
+
+        assertThat(mask).isEqualTo(-1L);
+        AvailabilityCalendar calendar = new AvailabilityCalendar(15, 8 * 60, new long[7], Map.of(MONDAY, mask));
+        assertThat(calendar.ranges(mask)).containsExactly("08:00-24:00");
+        assertThat(calendar.isOpen(LocalDateTime.of(MONDAY, LocalTime.of(23, 45)))).isTrue();
+        assertThat(calendar.isOpen(LocalDateTime.of(MONDAY.plusDays(1), LocalTime.of(23, 45)))).isFalse();
+    }
+
+    private static AvailabilityCalendar calendar(long mondayMask) {
+        long[] weekly = new long[7];
+        weekly[DayOfWeek.MONDAY.ordinal()] = mondayMask;
+        return new AvailabilityCalendar(SLOT, NINE, weekly, Map.of());
+    }
+}
@@ -0,0 +1,98 @@
+package com.project.app.repositories;
+
+import com.project.app.models.Appointment;
+import com.project.app.models.AppointmentStatus;
+import com.project.app.models.Doctor;
+import com.project.app.models.Patient;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Each named entity graph on {@link Appointment} loads what its callers use in one statement
+ * and nothing more, counted with Hibernate statistics.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:fetch-plans;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.sql.init.mode=never"
+})
+class AppointmentFetchPlanTest {
+
+    @Autowired
+    private AppointmentRepo appointmentRepo;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private Long appointmentId;
+
+    @BeforeEach
+    void setUp() {
+        Doctor doctor = entityManager.persist(new Doctor(null, "Dr. Gregory House", "Diagnostics",
+            "house@example.com", "secret1", "5550100000", "LIC-12345"));
+        List<Patient> patients = List.of(patient("one@example.com"), patient("two@example.com"));
+        patients.forEach(entityManager::persist);
+        for (int i = 0; i < 3; i++) {
+            Appointment appointment = Appointment.book(doctor, patients.get(i % patients.size()),
+                LocalDateTime.now().plusDays(i + 1).withNano(0));
+            appointmentId = entityManager.persistAndGetId(appointment, Long.class);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void summaryLoadsOnlyTheAppointment() {
+        Appointment appointment = appointmentRepo.findSummaryById(appointmentId).orElseThrow();
+        appointment.getStatus();
+        appointment.getAppointmentTime();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        assertThat(Hibernate.isInitialized(appointment.getDoctor())).isFalse();
+        assertThat(Hibernate.isInitialized(appointment.getPatient())).isFalse();
+    }
+
+    @Test
+    void withPatientLoadsListAndPatientsInOneStatement() {
+        List<Appointment> appointments = appointmentRepo.findByStatus(AppointmentStatus.BOOKED);
+        appointments.forEach(a -> a.getPatient().getName());
+
+        assertThat(appointments).hasSize(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        // Three appointments and their two distinct patients
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(5);
+        assertThat(appointments).allSatisfy(a -> assertThat(Hibernate.isInitialized(a.getDoctor())).isFalse());
+    }
+
+    @Test
+    void withDoctorAndPatientLoadsBothAssociationsInOneStatement() {
+        Appointment appointment = appointmentRepo.findWithDoctorAndPatientById(appointmentId).orElseThrow();
+        appointment.getDoctor().getName();
+        appointment.getPatient().getName();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(3);
+    }
+
+    private static Patient patient(String email) {
+        return new Patient(null, "Patient " + email, email, "secret1", "555-010-0001", "1 Main Street");
+    }
+}
@@ -0,0 +1,136 @@
+package com.project.app.repositories;
+
+import com.project.app.dtos.DoctorPatientDTO;
+import com.project.app.models.Appointment;
+import com.project.app.models.AppointmentStatus;
+import com.project.app.models.Doctor;
+import com.project.app.models.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repository queries against an embedded H2 database in MySQL mode.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:appointments;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    // Past appointments are fixtures here; @Future only guards new bookings
+    "spring.jpa.properties.jakarta.persistence.validation.mode=none",
+    "spring.sql.init.mode=never"
+})
+class AppointmentRepoTest {
+
+    @Autowired
+    private AppointmentRepo appointmentRepo;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Doctor doctor;
+    private Doctor otherDoctor;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        doctor = entityManager.persist(doctor("house@example.com"));
+        otherDoctor = entityManager.persist(doctor("wilson@example.com"));
+        patient = entityManager.persist(patient("jane@example.com"));
+    }
+
+    @Test
+    void statusUpdateReportsOnlyTheAppointmentsItChanged() {
+        Long booked = appointment(doctor, AppointmentStatus.BOOKED);
+        Long completed = appointment(doctor, AppointmentStatus.COMPLETED);
+        Long othersPatient = appointment(otherDoctor, AppointmentStatus.BOOKED);
+        entityManager.clear();
+
+        Map<Long, LocalDateTime> changed = appointmentRepo.updateStatusForDoctorReturningTimes(
+            List.of(booked, completed, othersPatient, -1L), doctor.getId(), AppointmentStatus.CANCELLED);
+
+        assertThat(changed).containsOnlyKeys(booked);
+        assertThat(changed.get(booked)).isEqualTo(entityManager.find(Appointment.class, booked).getAppointmentTime());
+        assertThat(statusOf(booked)).isEqualTo(AppointmentStatus.CANCELLED);
+        assertThat(statusOf(completed)).isEqualTo(AppointmentStatus.COMPLETED);
+        assertThat(statusOf(othersPatient)).isEqualTo(AppointmentStatus.BOOKED);
+    }
+
+    @Test
+    void statusUpdateWithNothingToChangeRunsNoUpdate() {
+        Long cancelled = appointment(doctor, AppointmentStatus.CANCELLED);
+        entityManager.clear();
+
+        assertThat(appointmentRepo.updateStatusForDoctorReturningTimes(
+            List.of(cancelled), doctor.getId(), AppointmentStatus.CONFIRMED)).isEmpty();
+        assertThat(statusOf(cancelled)).isEqualTo(AppointmentStatus.CANCELLED);
+    }
+
+    @Test
+    void doctorPatientsListEveryPatientButCountOnlyPastVisitsThatWereNotCancelled() {
+        Patient seenTwice = patient;
+        Patient onlyCancelled = entityManager.persist(patient("cancelled@example.com"));
+        Patient onlyUpcoming = entityManager.persist(patient("upcoming@example.com"));
+        LocalDateTime lastWeek = LocalDateTime.now().minusDays(7).withNano(0);
+        appointment(doctor, seenTwice, AppointmentStatus.COMPLETED, lastWeek.minusDays(30));
+        appointment(doctor, seenTwice, AppointmentStatus.COMPLETED, lastWeek);
+        appointment(doctor, seenTwice, AppointmentStatus.CANCELLED, lastWeek.plusDays(1));
+        appointment(doctor, seenTwice, AppointmentStatus.BOOKED, LocalDateTime.now().plusDays(3));
+        appointment(doctor, onlyCancelled, AppointmentStatus.CANCELLED, lastWeek);
+        appointment(doctor, onlyUpcoming, AppointmentStatus.BOOKED, LocalDateTime.now().plusDays(3));
+        appointment(otherDoctor, entityManager.persist(patient("elsewhere@example.com")), AppointmentStatus.COMPLETED, lastWeek);
+        entityManager.flush();
+
+        Page<DoctorPatientDTO> byLastVisit =
+            appointmentRepo.findDoctorPatientsByLastVisit(doctor.getId(), PageRequest.of(0, 10));
+        assertThat(byLastVisit.getTotalElements()).isEqualTo(3);
+        assertThat(byLastVisit.getContent()).extracting(DoctorPatientDTO::id)
+            .containsExactly(seenTwice.getId(), onlyCancelled.getId(), onlyUpcoming.getId());
+        assertThat(byLastVisit.getContent().get(0)).satisfies(row -> {
+            assertThat(row.visitCount()).isEqualTo(2);
+            assertThat(row.lastVisit()).isEqualTo(lastWeek);
+        });
+        assertThat(byLastVisit.getContent().subList(1, 3)).allSatisfy(row -> {
+            assertThat(row.visitCount()).isZero();
+            assertThat(row.lastVisit()).isNull();
+        });
+
+        Page<DoctorPatientDTO> byName =
+            appointmentRepo.findDoctorPatientsByName(doctor.getId(), PageRequest.of(0, 10));
+        assertThat(byName.getTotalElements()).isEqualTo(3);
+        assertThat(byName.getContent()).extracting(DoctorPatientDTO::id)
+            .containsExactly(onlyCancelled.getId(), seenTwice.getId(), onlyUpcoming.getId());
+    }
+
+    private Long appointment(Doctor owner, AppointmentStatus status) {
+        return appointment(owner, patient, status, LocalDateTime.now().plusDays(1).withNano(0));
+    }
+
+    private Long appointment(Doctor owner, Patient of, AppointmentStatus status, LocalDateTime time) {
+        Appointment appointment = Appointment.book(owner, of, time);
+        appointment.changeStatus(status);
+        return entityManager.persistAndGetId(appointment, Long.class);
+    }
+
+    private AppointmentStatus statusOf(Long id) {
+        entityManager.clear();
+        return entityManager.find(Appointment.class, id).getStatus();
+    }
+
+    private static Patient patient(String email) {
+        return new Patient(null, "Patient " + email, email, "secret1", "555-010-0001", "1 Main Street");
+    }
+
+    private static Doctor doctor(String email) {
+        return new Doctor(null, "Dr. " + email, "Cardiology", email, "secret1", "5550100000", "LIC-12345");
+    }
+}
@@ -0,0 +1,43 @@
+package com.project.app.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Revocation inserts against an embedded H2 database in MySQL mode.
+ */
+// Each insert commits on its own, as it does outside a test, so the duplicate fails at once
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:revoked-tokens;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.sql.init.mode=never"
+})
+class RevokedTokenRepoTest {
+
+    @Autowired
+    private RevokedTokenRepo revokedTokenRepo;
+
+    @Test
+    void onlyTheFirstRevocationOfAJtiInsertsARow() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        String jti = "8f14e45f-ceea-467f-a0e6-1b3c2a8e9d21";
+
+        assertThat(revokedTokenRepo.insert(jti, now.plusDays(7), now)).isEqualTo(1);
+        assertThatThrownBy(() -> revokedTokenRepo.insert(jti, now.plusDays(7), now.plusSeconds(1)))
+            .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(revokedTokenRepo.count()).isEqualTo(1);
+        assertThat(revokedTokenRepo.findById(jti)).hasValueSatisfying(
+            token -> assertThat(token.getRevokedAt()).isEqualTo(now));
+    }
+}
@@ -0,0 +1,172 @@
+package com.project.app.services;
+
+import com.project.app.dtos.AppointmentDTO;
+import com.project.app.dtos.AppointmentStatusBatchResult;
+import com.project.app.dtos.BookingRequest;
+import com.project.app.dtos.DoctorDTO;
+import com.project.app.dtos.DoctorPatientDTO;
+import com.project.app.models.Appointment;
+import com.project.app.models.Doctor;
+import com.project.app.models.Patient;
+import com.project.app.repositories.PrescriptionRepo;
+import com.project.app.utils.SingleFlight;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Statements run and entities loaded by the service method behind each appointment endpoint:
+ * booking, cancellation, single and batch status updates, the schedule and the patient list
+ * with its visit counts. Pending writes are flushed before counting, so UPDATEs are included.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:endpoint-statements;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.sql.init.mode=never"
+})
+@Import({AppointmentService.class, DoctorService.class})
+class AppointmentStatementCountTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private AvailabilityService availabilityService;
+
+    @MockitoBean
+    private DailyReportService dailyReportService;
+
+    @MockitoBean
+    private AppointmentStatusWriteBehind statusWriteBehind;
+
+    @MockitoBean
+    private PrescriptionRepo prescriptionRepo;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private SingleFlight<String, List<String>> availableSlotsFlight;
+
+    @MockitoBean
+    private SingleFlight<String, List<DoctorDTO>> doctorListFlight;
+
+    private Statistics statistics;
+    private Long doctorId;
+    private Long patientId;
+    private final List<Long> appointmentIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Doctor doctor = entityManager.persist(new Doctor(null, "Dr. Gregory House", "Diagnostics",
+            "house@example.com", "secret1", "5550100000", "LIC-12345"));
+        List<Patient> patients = List.of(patient("one@example.com"), patient("two@example.com"));
+        patients.forEach(entityManager::persist);
+        for (int i = 0; i < 3; i++) {
+            Appointment appointment = Appointment.book(doctor, patients.get(i % patients.size()),
+                LocalDate.now().plusDays(i + 1).atTime(10, 0));
+            appointmentIds.add(entityManager.persistAndGetId(appointment, Long.class));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        doctorId = doctor.getId();
+        patientId = patients.get(0).getId();
+
+        when(availabilityService.isBookable(anyLong(), any())).thenReturn(true);
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void bookingLocksTheDoctorLoadsThePatientChecksTheSlotAndInserts() {
+        appointmentService.bookAppointment(new BookingRequest(doctorId, patientId,
+            LocalDate.now().plusDays(10), LocalTime.of(9, 30), "Check-up"));
+        entityManager.flush();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cancellationLoadsOnlyTheAppointment() {
+        appointmentService.cancelAppointment(appointmentIds.get(0));
+        entityManager.flush();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void singleStatusUpdateLoadsDoctorAndPatientWithTheAppointment() {
+        AppointmentDTO updated = doctorService.updateAppointmentStatus(doctorId, appointmentIds.get(0), "CONFIRMED");
+        entityManager.flush();
+
+        assertThat(updated.getPatientName()).isEqualTo("Patient one@example.com");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(3);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void batchStatusUpdateLocksTheAppointmentsAndRunsOneUpdate() {
+        AppointmentStatusBatchResult result = doctorService.updateAppointmentStatuses(doctorId, appointmentIds, "CONFIRMED");
+        entityManager.flush();
+
+        assertThat(result.count()).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        // The locked appointments only; their doctor and patients stay unloaded
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(3);
+    }
+
+    @Test
+    void scheduleIsOneProjectionWithNoEntities() {
+        List<AppointmentDTO> schedule = doctorService.getDoctorSchedule(doctorId, null, null);
+
+        assertThat(schedule).hasSize(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void patientPageWithVisitCountsIsOneProjectionAndOneCount() {
+        // A page smaller than the result, so the count query runs too
+        Page<DoctorPatientDTO> page = doctorService.getDoctorPatients(doctorId, 0, 1, "name");
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private static Patient patient(String email) {
+        return new Patient(null, "Patient " + email, email, "secret1", "555-010-0001", "1 Main Street");
+    }
+}
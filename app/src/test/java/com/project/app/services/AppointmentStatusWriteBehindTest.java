@@ -0,0 +1,97 @@
+package com.project.app.services;
+
+import com.project.app.models.AppointmentStatus;
+import com.project.app.repositories.AppointmentRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Buffering and acknowledgement, flushed by hand instead of by the scheduler.
+ */
+class AppointmentStatusWriteBehindTest {
+
+    private static final Long DOCTOR = 7L;
+    private static final LocalDateTime TIME = LocalDateTime.of(2026, 3, 2, 10, 30);
+
+    private AppointmentRepo appointmentRepo;
+    private DailyReportService dailyReportService;
+    private AppointmentStatusWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepo = mock(AppointmentRepo.class);
+        dailyReportService = mock(DailyReportService.class);
+        // Never started, so nothing flushes on a timer
+        writeBehind = new AppointmentStatusWriteBehind(appointmentRepo, dailyReportService, true, 100, 100, 200);
+    }
+
+    @Test
+    void acknowledgesOnlyTheAppointmentsTheUpdateChanged() {
+        when(appointmentRepo.updateStatusForDoctorReturningTimes(anyCollection(), eq(DOCTOR), eq(AppointmentStatus.CANCELLED)))
+            .thenReturn(Map.of(1L, TIME));
+
+        CompletableFuture<Integer> ack = writeBehind.enqueue(DOCTOR, List.of(1L, 2L), AppointmentStatus.CANCELLED);
+        assertThat(ack).isNotDone();
+
+        writeBehind.flushBatch();
+        assertThat(ack).isCompletedWithValue(1);
+        // The changed appointment's day is dropped from the report snapshots
+        verify(dailyReportService).evictAfterCompletion(
+            ArgumentMatchers.<Collection<LocalDateTime>>argThat(times -> List.copyOf(times).equals(List.of(TIME))));
+    }
+
+    @Test
+    void sameChangeFromTwoCallersIsWrittenOnce() {
+        when(appointmentRepo.updateStatusForDoctorReturningTimes(anyCollection(), eq(DOCTOR), eq(AppointmentStatus.CONFIRMED)))
+            .thenReturn(Map.of(1L, TIME));
+
+        CompletableFuture<Integer> first = writeBehind.enqueue(DOCTOR, List.of(1L), AppointmentStatus.CONFIRMED);
+        CompletableFuture<Integer> second = writeBehind.enqueue(DOCTOR, List.of(1L), AppointmentStatus.CONFIRMED);
+        writeBehind.flushBatch();
+
+        verify(appointmentRepo, times(1)).updateStatusForDoctorReturningTimes(Set.of(1L), DOCTOR, AppointmentStatus.CONFIRMED);
+        assertThat(first).isCompletedWithValue(1);
+        assertThat(second).isCompletedWithValue(1);
+    }
+
+    @Test
+    void differentTargetsForOneAppointmentAreAppliedSeparatelyInOrder() {
+        when(appointmentRepo.updateStatusForDoctorReturningTimes(anyCollection(), eq(DOCTOR), eq(AppointmentStatus.CONFIRMED)))
+            .thenReturn(Map.of(1L, TIME));
+        when(appointmentRepo.updateStatusForDoctorReturningTimes(anyCollection(), eq(DOCTOR), eq(AppointmentStatus.COMPLETED)))
+            .thenReturn(Map.of(1L, TIME));
+
+        CompletableFuture<Integer> confirm = writeBehind.enqueue(DOCTOR, List.of(1L), AppointmentStatus.CONFIRMED);
+        CompletableFuture<Integer> complete = writeBehind.enqueue(DOCTOR, List.of(1L), AppointmentStatus.COMPLETED);
+
+        // The second change of appointment 1 waits for the next batch
+        writeBehind.flushBatch();
+        assertThat(confirm).isCompletedWithValue(1);
+        assertThat(complete).isNotDone();
+
+        writeBehind.flushBatch();
+        assertThat(complete).isCompletedWithValue(1);
+
+        InOrder order = inOrder(appointmentRepo);
+        order.verify(appointmentRepo).updateStatusForDoctorReturningTimes(Set.of(1L), DOCTOR, AppointmentStatus.CONFIRMED);
+        order.verify(appointmentRepo).updateStatusForDoctorReturningTimes(Set.of(1L), DOCTOR, AppointmentStatus.COMPLETED);
+    }
+}
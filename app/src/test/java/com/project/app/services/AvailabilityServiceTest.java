@@ -0,0 +1,84 @@
+package com.project.app.services;
+
+import com.project.app.repositories.AppointmentRepo;
+import com.project.app.repositories.AvailabilityOverrideRepo;
+import com.project.app.repositories.AvailabilityTemplateRepo;
+import com.project.app.repositories.DoctorRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * When a doctor's compiled calendar is served from the cache and when it must be read again.
+ */
+class AvailabilityServiceTest {
+
+    private static final Long DOCTOR = 3L;
+
+    private AvailabilityTemplateRepo templateRepo;
+    private AvailabilityOverrideRepo overrideRepo;
+    private DoctorRepo doctorRepo;
+    private AvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        templateRepo = mock(AvailabilityTemplateRepo.class);
+        overrideRepo = mock(AvailabilityOverrideRepo.class);
+        doctorRepo = mock(DoctorRepo.class);
+        when(doctorRepo.existsById(DOCTOR)).thenReturn(true);
+        when(templateRepo.findByDoctorId(DOCTOR)).thenReturn(Optional.empty());
+        when(overrideRepo.findByDoctorId(DOCTOR)).thenReturn(List.of());
+        when(overrideRepo.deleteByDoctorIdAndDate(any(), any())).thenReturn(1);
+
+        availabilityService = withCacheTtl(60_000L);
+    }
+
+    private AvailabilityService withCacheTtl(long cacheTtlMs) {
+        return new AvailabilityService(templateRepo, overrideRepo, mock(AppointmentRepo.class), doctorRepo,
+            30, "09:00-17:00", cacheTtlMs);
+    }
+
+    @Test
+    void calendarIsLoadedOnceWhileCached() {
+        availabilityService.calendarFor(DOCTOR);
+        availabilityService.calendarFor(DOCTOR);
+
+        verify(templateRepo, times(1)).findByDoctorId(DOCTOR);
+    }
+
+    @Test
+    void calendarLoadedBeforeAnInvalidationIsNotCached() {
+        // The batch load reads the old rows, and an admin change completes before it caches them
+        when(templateRepo.findByDoctorIdIn(anyCollection())).thenAnswer(invocation -> {
+            availabilityService.deleteOverride(DOCTOR, LocalDate.of(2026, 12, 24));
+            return List.of();
+        });
+        when(overrideRepo.findByDoctorIdIn(anyCollection())).thenReturn(List.of());
+
+        availabilityService.calendarsFor(List.of(DOCTOR));
+        availabilityService.calendarFor(DOCTOR);
+
+        // Not served from the cache: the single-doctor path had to read the rows again
+        verify(templateRepo, times(1)).findByDoctorId(DOCTOR);
+    }
+
+    @Test
+    void expiredCalendarIsReloaded() {
+        availabilityService = withCacheTtl(-1L);
+
+        availabilityService.calendarFor(DOCTOR);
+        availabilityService.calendarFor(DOCTOR);
+
+        verify(templateRepo, times(2)).findByDoctorId(DOCTOR);
+    }
+}
@@ -0,0 +1,78 @@
+package com.project.app.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.app.repositories.AppointmentRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Which days are kept as snapshots and which status changes drop them. The grace period is
+ * seven days, so "yesterday" is still open and "last month" is settled.
+ */
+class DailyReportServiceTest {
+
+    private AppointmentRepo appointmentRepo;
+    private DailyReportService dailyReportService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepo = mock(AppointmentRepo.class);
+        when(appointmentRepo.findDailyReportRows(any(), any())).thenReturn(List.of());
+        dailyReportService = new DailyReportService(appointmentRepo, new ObjectMapper(), 10, 7);
+    }
+
+    @Test
+    void daysWithinTheGracePeriodAreAlwaysGeneratedFresh() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+
+        assertThat(dailyReportService.getReport(yesterday, false).snapshot()).isFalse();
+        dailyReportService.getReport(yesterday, false);
+
+        verify(appointmentRepo, times(2)).findDailyReportRows(any(), any());
+    }
+
+    @Test
+    void settledDaysAreServedFromTheSnapshot() {
+        LocalDate lastMonth = LocalDate.now().minusDays(30);
+
+        assertThat(dailyReportService.getReport(lastMonth, false).snapshot()).isTrue();
+        dailyReportService.getReport(lastMonth, false);
+
+        verify(appointmentRepo, times(1)).findDailyReportRows(any(), any());
+    }
+
+    @Test
+    void batchStatusChangeDropsTheSnapshotOfEveryDayItTouched() {
+        LocalDate lastMonth = LocalDate.now().minusDays(30);
+        LocalDate twoMonthsAgo = LocalDate.now().minusDays(60);
+        dailyReportService.getReport(lastMonth, false);
+        dailyReportService.getReport(twoMonthsAgo, false);
+
+        dailyReportService.evictAfterCompletion(List.of(lastMonth.atTime(9, 0), twoMonthsAgo.atTime(16, 0)));
+        dailyReportService.getReport(lastMonth, false);
+        dailyReportService.getReport(twoMonthsAgo, false);
+
+        verify(appointmentRepo, times(4)).findDailyReportRows(any(), any());
+    }
+
+    @Test
+    void statusChangeOnASettledDayDropsItsSnapshot() {
+        LocalDate lastMonth = LocalDate.now().minusDays(30);
+        dailyReportService.getReport(lastMonth, false);
+
+        dailyReportService.evictAfterCompletion(lastMonth.atTime(10, 30));
+        dailyReportService.getReport(lastMonth, false);
+
+        verify(appointmentRepo, times(2)).findDailyReportRows(any(), any());
+    }
+}
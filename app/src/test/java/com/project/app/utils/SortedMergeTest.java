@@ -0,0 +1,28 @@
+package com.project.app.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedMergeTest {
+
+    @Test
+    void mergesSortedSourcesInOrder() {
+        List<List<Integer>> sources = List.of(List.of(1, 4, 9), List.of(), List.of(2, 3, 10), List.of(5));
+
+        assertThat(SortedMerge.merge(sources, Comparator.<Integer>naturalOrder(), 100))
+            .containsExactly(1, 2, 3, 4, 5, 9, 10);
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        List<List<Integer>> sources = List.of(List.of(9, 7, 1), List.of(8, 2));
+
+        assertThat(SortedMerge.merge(sources, Comparator.<Integer>reverseOrder(), 3)).containsExactly(9, 8, 7);
+        assertThat(SortedMerge.merge(sources, Comparator.<Integer>reverseOrder(), 0)).isEmpty();
+        assertThat(SortedMerge.merge(List.<List<Integer>>of(), Comparator.<Integer>naturalOrder(), 5)).isEmpty();
+    }
+}